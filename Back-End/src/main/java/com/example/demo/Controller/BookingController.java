@@ -1,19 +1,32 @@
 package com.example.demo.Controller;
 
+import com.example.demo.DTO.BookingBatchRequest;
+import com.example.demo.DTO.BookingBulkTransitionRequest;
 import com.example.demo.DTO.BookingCreateRequest;
 import com.example.demo.DTO.BookingResponse;
+import com.example.demo.DTO.BookingTransitionResult;
+import com.example.demo.DTO.CursorPage;
+import com.example.demo.DTO.PriceQuoteResponse;
 import com.example.demo.Entity.Booking;
+import com.example.demo.Service.BookingExportService;
+import com.example.demo.Service.BookingHoldService;
 import com.example.demo.Service.BookingService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -23,6 +36,12 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private BookingHoldService holdService;
+
+    @Autowired
+    private BookingExportService exportService;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
     public ResponseEntity<Map<String, Object>> create(@Valid @RequestBody BookingCreateRequest request) {
@@ -35,12 +54,78 @@ public class BookingController {
         return ResponseEntity.status(201).body(res);
     }
 
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> createBatch(@Valid @RequestBody BookingBatchRequest request) {
+        List<Long> ids = bookingService.createBookings(request.getItems());
+
+        Map<String, Object> res = new HashMap<>();
+        res.put("ids", ids);
+        res.put("message", "Đặt xe thành công");
+
+        return ResponseEntity.status(201).body(res);
+    }
+
+    @GetMapping("/quote")
+    public ResponseEntity<PriceQuoteResponse> quote(
+            @RequestParam Long vehicleId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startAt,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endAt
+    ) {
+        return ResponseEntity.ok(bookingService.quote(vehicleId, startAt, endAt));
+    }
+
+    @PostMapping("/holds")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
+    public ResponseEntity<BookingHoldService.Hold> placeHold(@Valid @RequestBody BookingCreateRequest request) {
+        return ResponseEntity.status(201).body(
+                holdService.placeHold(request.getVehicleId(), request.getStartAt(), request.getEndAt()));
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
+    public ResponseEntity<?> releaseHold(@PathVariable String holdId) {
+        holdService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/me")
     @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
-    public List<BookingResponse> myBookings() {
-        return bookingService.getMyBookings().stream()
-                .map(BookingResponse::fromEntity)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<BookingResponse>> myBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        CursorPage<BookingResponse> page = bookingService.getMyBookings(cursor, limit);
+        // Cursor trang sau trả qua header để body vẫn là mảng như trước
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Xuất booking có endAt trong [from, to) cho kế toán (mặc định COMPLETED), ghi dần từng dòng
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('EMPLOYEE')")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "COMPLETED") Booking.BookingStatus status,
+            @RequestParam(defaultValue = BookingExportService.FORMAT_CSV) String format
+    ) {
+        exportService.validate(format, from, to);
+        // Mỗi export giữ một connection suốt lúc client tải: hết lượt thì từ chối thay vì chiếm hết pool
+        if (!exportService.tryAcquireSlot()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        boolean ndjson = BookingExportService.FORMAT_NDJSON.equalsIgnoreCase(format);
+        String filename = "bookings-" + status.name().toLowerCase() + "-" + from + "-" + to + (ndjson ? ".ndjson" : ".csv");
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.parseMediaType("application/x-ndjson") : MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(out -> exportService.export(status, from, to, format, out));
     }
 
     @PostMapping("/{id}/confirm")
@@ -66,6 +151,22 @@ public class BookingController {
     public ResponseEntity<BookingResponse> cancel(@PathVariable Long id) {
         return ResponseEntity.ok(BookingResponse.fromEntity(bookingService.cancel(id)));
     }
-}
 
+    @PostMapping("/bulk/confirm")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('EMPLOYEE')")
+    public ResponseEntity<List<BookingTransitionResult>> bulkConfirm(@Valid @RequestBody BookingBulkTransitionRequest request) {
+        return ResponseEntity.ok(bookingService.bulkConfirm(request.getIds()));
+    }
+
+    @PostMapping("/bulk/complete")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('EMPLOYEE')")
+    public ResponseEntity<List<BookingTransitionResult>> bulkComplete(@Valid @RequestBody BookingBulkTransitionRequest request) {
+        return ResponseEntity.ok(bookingService.bulkComplete(request.getIds()));
+    }
 
+    @PostMapping("/bulk/cancel")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('EMPLOYEE')")
+    public ResponseEntity<List<BookingTransitionResult>> bulkCancel(@Valid @RequestBody BookingBulkTransitionRequest request) {
+        return ResponseEntity.ok(bookingService.bulkCancel(request.getIds()));
+    }
+}
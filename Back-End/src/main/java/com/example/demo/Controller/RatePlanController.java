@@ -0,0 +1,48 @@
+package com.example.demo.Controller;
+
+import com.example.demo.DTO.RatePlanRequest;
+import com.example.demo.DTO.RatePlanResponse;
+import com.example.demo.Service.RatePlanService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/rate-plans")
+@CrossOrigin(origins = "*")
+public class RatePlanController {
+
+    @Autowired
+    private RatePlanService ratePlanService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('EMPLOYEE')")
+    public List<RatePlanResponse> list() {
+        return ratePlanService.listRatePlans().stream()
+                .map(RatePlanResponse::fromEntity)
+                .toList();
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RatePlanResponse> create(@Valid @RequestBody RatePlanRequest request) {
+        return ResponseEntity.ok(RatePlanResponse.fromEntity(ratePlanService.createRatePlan(request)));
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RatePlanResponse> update(@PathVariable Long id, @Valid @RequestBody RatePlanRequest request) {
+        return ResponseEntity.ok(RatePlanResponse.fromEntity(ratePlanService.updateRatePlan(id, request)));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> delete(@PathVariable Long id) {
+        ratePlanService.deleteRatePlan(id);
+        return ResponseEntity.noContent().build();
+    }
+}
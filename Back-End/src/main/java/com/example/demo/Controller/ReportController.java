@@ -0,0 +1,43 @@
+package com.example.demo.Controller;
+
+import com.example.demo.DTO.UtilizationResponse;
+import com.example.demo.Service.FleetRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    @Autowired
+    private FleetRollupService rollupService;
+
+    /**
+     * Tỷ lệ lấp đầy và doanh thu theo ngày, đọc từ bảng rollup
+     */
+    @GetMapping("/utilization")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('EMPLOYEE')")
+    public List<UtilizationResponse> utilization(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                 @RequestParam(defaultValue = "vehicle") String groupBy) {
+        return rollupService.report(from, to, groupBy);
+    }
+
+    /**
+     * Dựng lại rollup từ bảng bookings cho khoảng ngày
+     */
+    @PostMapping("/utilization/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuild(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(Map.of("rows", rollupService.rebuild(from, to)));
+    }
+}
@@ -1,20 +1,35 @@
 package com.example.demo.Controller;
 
+import com.example.demo.DTO.AvailabilityCalendarResponse;
+import com.example.demo.DTO.CursorPage;
 import com.example.demo.DTO.VehicleRequest;
 import com.example.demo.DTO.VehicleResponse;
+import com.example.demo.DTO.VehicleSuggestionResponse;
 import com.example.demo.Entity.Vehicle;
+import com.example.demo.Service.AvailabilityCalendarService;
+import com.example.demo.Service.VehicleCatalog;
 import com.example.demo.Service.VehicleService;
+import com.example.demo.Service.VehicleSuggestIndex;
+import com.example.demo.Service.VehicleTextIndex;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import org.springframework.format.annotation.DateTimeFormat;
 
@@ -26,15 +41,43 @@ public class VehicleController {
     @Autowired
     private VehicleService vehicleService;
     
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "dailyPrice", "createdAt", "title");
+
+    @Autowired
+    private AvailabilityCalendarService availabilityCalendarService;
+
+    @Autowired
+    private VehicleSuggestIndex suggestIndex;
+
+    @Autowired
+    private VehicleCatalog catalog;
+
+    @Autowired
+    private VehicleTextIndex textIndex;
+
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
 
+    /**
+     * Danh sách xe theo trang keyset. sort: id | dailyPrice | createdAt, kèm ",asc" hoặc ",desc";
+     * cursor trang sau trả qua header X-Next-Cursor
+     */
     @GetMapping
-    public List<VehicleResponse> listVehicles(HttpServletRequest request) {
-        String serverBaseUrl = getBaseUrl(request);
-        return vehicleService.listVehicles().stream()
-                .map(vehicle -> VehicleResponse.fromEntity(vehicle, serverBaseUrl))
-                .collect(Collectors.toList());
+    public ResponseEntity<List<VehicleResponse>> listVehicles(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "id,asc") String sort,
+            HttpServletRequest request,
+            ServletWebRequest webRequest
+    ) {
+        if (notModified(webRequest, null)) {
+            return null;
+        }
+        Sort.Order order = sortOrder(sort);
+        return cursorResponse(vehicleService.listVehicles(order.getProperty(), order.isDescending(), cursor, pageSize(limit)),
+                getBaseUrl(request));
     }
     
     private String getBaseUrl(HttpServletRequest request) {
@@ -48,40 +91,166 @@ public class VehicleController {
         return scheme + "://" + serverName + (serverPort != 80 && serverPort != 443 ? ":" + serverPort : "");
     }
 
+    /**
+     * Tìm xe. sort: id | dailyPrice | createdAt | title, kèm ",asc" hoặc ",desc".
+     * q: tìm full-text (không dấu) trên tên, mô tả, biển số; không truyền sort thì xếp theo độ liên quan.
+     * Mặc định phân trang keyset (cursor, header X-Next-Cursor); truyền page để phân trang offset kèm X-Total-Count
+     * (bắt buộc khi xếp theo độ liên quan hoặc sort theo title)
+     */
     @GetMapping("/search")
-    public List<VehicleResponse> searchVehicles(
+    public ResponseEntity<List<VehicleResponse>> searchVehicles(
             @RequestParam(required = false) Vehicle.VehicleType type,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            HttpServletRequest request
+            @RequestParam(required = false) Vehicle.VehicleStatus status,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort,
+            HttpServletRequest request,
+            ServletWebRequest webRequest
     ) {
+        if (notModified(webRequest, q)) {
+            return null;
+        }
         String serverBaseUrl = getBaseUrl(request);
-        return vehicleService.searchVehicles(type, minPrice, maxPrice).stream()
-                .map(vehicle -> VehicleResponse.fromEntity(vehicle, serverBaseUrl))
-                .collect(Collectors.toList());
+        boolean relevance = sort == null && q != null && !q.isBlank();
+        if (page != null || relevance) {
+            Page<VehicleCatalog.Entry> result = vehicleService.searchVehicles(type, minPrice, maxPrice, status, text, q,
+                    pageRequest(page == null ? 0 : page, size, relevance ? null : sort));
+            return pageResponse(result.map(entry -> VehicleResponse.fromCatalog(entry, serverBaseUrl)));
+        }
+        Sort.Order order = sortOrder(sort == null ? "id,asc" : sort);
+        return cursorResponse(vehicleService.searchVehiclesAfter(type, minPrice, maxPrice, status, text, q,
+                order.getProperty(), order.isDescending(), cursor, pageSize(size)), serverBaseUrl);
+    }
+
+    /**
+     * Gợi ý khi gõ (tên xe, biển số), không chạm database
+     */
+    @GetMapping("/suggest")
+    public List<VehicleSuggestionResponse> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return suggestIndex.suggest(prefix, limit);
     }
 
     @GetMapping("/search/by-price")
-    public List<VehicleResponse> searchByPrice(
+    public ResponseEntity<List<VehicleResponse>> searchByPrice(
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            HttpServletRequest request
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "dailyPrice,asc") String sort,
+            HttpServletRequest request,
+            ServletWebRequest webRequest
     ) {
+        if (notModified(webRequest, null)) {
+            return null;
+        }
         String serverBaseUrl = getBaseUrl(request);
-        return vehicleService.searchByPrice(minPrice, maxPrice).stream()
-                .map(vehicle -> VehicleResponse.fromEntity(vehicle, serverBaseUrl))
-                .collect(Collectors.toList());
+        if (page != null) {
+            return pageResponse(vehicleService.searchByPrice(minPrice, maxPrice, pageRequest(page, size, sort))
+                    .map(entry -> VehicleResponse.fromCatalog(entry, serverBaseUrl)));
+        }
+        Sort.Order order = sortOrder(sort);
+        return cursorResponse(vehicleService.searchVehiclesAfter(null, minPrice, maxPrice, null, null, null,
+                order.getProperty(), order.isDescending(), cursor, pageSize(size)), serverBaseUrl);
     }
 
     @GetMapping("/search/by-type")
-    public List<VehicleResponse> searchByType(
+    public ResponseEntity<List<VehicleResponse>> searchByType(
             @RequestParam Vehicle.VehicleType type,
-            HttpServletRequest request
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id,asc") String sort,
+            HttpServletRequest request,
+            ServletWebRequest webRequest
     ) {
+        if (notModified(webRequest, null)) {
+            return null;
+        }
         String serverBaseUrl = getBaseUrl(request);
-        return vehicleService.searchByType(type).stream()
-                .map(vehicle -> VehicleResponse.fromEntity(vehicle, serverBaseUrl))
-                .collect(Collectors.toList());
+        if (page != null) {
+            return pageResponse(vehicleService.searchByType(type, pageRequest(page, size, sort))
+                    .map(entry -> VehicleResponse.fromCatalog(entry, serverBaseUrl)));
+        }
+        Sort.Order order = sortOrder(sort);
+        return cursorResponse(vehicleService.searchVehiclesAfter(type, null, null, null, null, null,
+                order.getProperty(), order.isDescending(), cursor, pageSize(size)), serverBaseUrl);
+    }
+
+    /**
+     * Chỉ cho sort theo các cột của vehicles; luôn thêm id để thứ tự giữa các trang ổn định.
+     * sort null: không sort (giữ thứ tự liên quan của full-text)
+     */
+    private static PageRequest pageRequest(int page, int size, String sort) {
+        if (sort == null) {
+            return PageRequest.of(Math.max(page, 0), pageSize(size));
+        }
+        Sort.Order first = sortOrder(sort);
+        Sort order = Sort.by(first);
+        if (!first.getProperty().equals("id")) {
+            order = order.and(Sort.by(first.getDirection(), "id"));
+        }
+        return PageRequest.of(Math.max(page, 0), pageSize(size), order);
+    }
+
+    private static Sort.Order sortOrder(String sort) {
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE_PROPERTIES.contains(property)) {
+            throw new RuntimeException("Không hỗ trợ sort theo " + property);
+        }
+        Sort.Direction direction = parts.length > 1 && parts[1].trim().equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return new Sort.Order(direction, property);
+    }
+
+    /**
+     * ETag mạnh theo version dùng chung của VehicleCatalog, giống nhau giữa các node
+     * (search có q: kèm generation của VehicleTextIndex, index này theo từng node).
+     * If-None-Match khớp thì trả 304 ngay, trước khi đọc dữ liệu hay serialize; catalog chưa nạp thì không có ETag
+     */
+    private boolean notModified(ServletWebRequest webRequest, String q) {
+        String version = catalog.versionTag();
+        if (version == null) {
+            return false;
+        }
+        if (q != null && !q.isBlank()) {
+            version = version + "-" + textIndex.generationTag();
+        }
+        // Cho phép client cache nhưng luôn hỏi lại bằng If-None-Match (Spring Security mặc định gửi no-store)
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return webRequest.checkNotModified("\"" + version + "\"");
+    }
+
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    private static ResponseEntity<List<VehicleResponse>> cursorResponse(CursorPage<VehicleCatalog.Entry> page,
+                                                                        String serverBaseUrl) {
+        // Cursor trang sau trả qua header để body vẫn là mảng như trước
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems().stream()
+                .map(entry -> VehicleResponse.fromCatalog(entry, serverBaseUrl))
+                .collect(Collectors.toList()));
+    }
+
+    private static ResponseEntity<List<VehicleResponse>> pageResponse(Page<VehicleResponse> result) {
+        // Thông tin phân trang trả qua header để body vẫn là mảng như trước
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(result.getTotalElements()))
+                .body(result.getContent());
     }
 
     @GetMapping("/search/by-date")
@@ -92,14 +261,43 @@ public class VehicleController {
     ) {
         String serverBaseUrl = getBaseUrl(request);
         return vehicleService.searchByDateAvailability(startAt, endAt).stream()
-                .map(vehicle -> VehicleResponse.fromEntity(vehicle, serverBaseUrl))
+                .map(entry -> VehicleResponse.fromCatalog(entry, serverBaseUrl))
                 .collect(Collectors.toList());
     }
 
+    @GetMapping("/search/available")
+    public ResponseEntity<List<VehicleResponse>> searchAvailable(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startAt,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endAt,
+            @RequestParam(required = false) Vehicle.VehicleType type,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest request
+    ) {
+        String serverBaseUrl = getBaseUrl(request);
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), pageSize(size), Sort.by("id"));
+        Page<Vehicle> result = vehicleService.searchAvailableVehicles(type, minPrice, maxPrice, startAt, endAt, pageable);
+        return pageResponse(result.map(vehicle -> VehicleResponse.fromEntity(vehicle, serverBaseUrl)));
+    }
+
+    @GetMapping("/availability-calendar")
+    public AvailabilityCalendarResponse availabilityCalendar(
+            @RequestParam List<Long> vehicleIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "90") int days
+    ) {
+        return availabilityCalendarService.getCalendar(vehicleIds, from != null ? from : LocalDate.now(), days);
+    }
+
     @GetMapping("/{id}")
-    public VehicleResponse getVehicle(@PathVariable Long id, HttpServletRequest request) {
+    public VehicleResponse getVehicle(@PathVariable Long id, HttpServletRequest request, ServletWebRequest webRequest) {
+        if (notModified(webRequest, null)) {
+            return null;
+        }
         String serverBaseUrl = getBaseUrl(request);
-        return VehicleResponse.fromEntity(vehicleService.getVehicle(id), serverBaseUrl);
+        return VehicleResponse.fromCatalog(vehicleService.getVehicleEntry(id), serverBaseUrl);
     }
 
     @PostMapping
@@ -0,0 +1,46 @@
+package com.example.demo.Controller;
+
+import com.example.demo.DTO.BookingCreateRequest;
+import com.example.demo.DTO.WaitlistResponse;
+import com.example.demo.Service.WaitlistService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@CrossOrigin(origins = "*")
+public class WaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    /**
+     * Chờ xe đã kín lịch; khi khoảng này trống ra, hệ thống giữ chỗ và entry chuyển sang OFFERED kèm holdId
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
+    public ResponseEntity<WaitlistResponse> join(@Valid @RequestBody BookingCreateRequest request) {
+        return ResponseEntity.status(201).body(WaitlistResponse.fromEntity(
+                waitlistService.join(request.getVehicleId(), request.getStartAt(), request.getEndAt())));
+    }
+
+    @GetMapping("/me")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
+    public List<WaitlistResponse> myEntries() {
+        return waitlistService.getMyEntries().stream()
+                .map(WaitlistResponse::fromEntity)
+                .toList();
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
+    public ResponseEntity<?> leave(@PathVariable Long id) {
+        waitlistService.leave(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.DTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class AvailabilityCalendarResponse {
+
+    private LocalDate from;
+    private int days;
+    // occupied: base64 của các long-word little-endian, bit i = ngày from + i đã có booking
+    private List<VehicleCalendar> vehicles;
+
+    public AvailabilityCalendarResponse(LocalDate from, int days, List<VehicleCalendar> vehicles) {
+        this.from = from;
+        this.days = days;
+        this.vehicles = vehicles;
+    }
+
+    public LocalDate getFrom() { return from; }
+    public int getDays() { return days; }
+    public List<VehicleCalendar> getVehicles() { return vehicles; }
+
+    public static class VehicleCalendar {
+
+        private Long vehicleId;
+        private String occupied;
+
+        public VehicleCalendar(Long vehicleId, String occupied) {
+            this.vehicleId = vehicleId;
+            this.occupied = occupied;
+        }
+
+        public Long getVehicleId() { return vehicleId; }
+        public String getOccupied() { return occupied; }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.DTO;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BookingBatchRequest {
+
+    @NotEmpty
+    @Size(max = 50)
+    @Valid
+    private List<BookingCreateRequest> items;
+
+    public List<BookingCreateRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BookingCreateRequest> items) {
+        this.items = items;
+    }
+}
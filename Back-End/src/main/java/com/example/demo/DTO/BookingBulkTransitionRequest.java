@@ -0,0 +1,22 @@
+package com.example.demo.DTO;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BookingBulkTransitionRequest {
+
+    @NotEmpty
+    @Size(max = 500)
+    private List<@NotNull Long> ids;
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
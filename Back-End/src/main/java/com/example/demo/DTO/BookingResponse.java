@@ -4,6 +4,7 @@ import com.example.demo.Entity.Booking;
 import com.example.demo.Entity.Vehicle;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 
 public class BookingResponse {
@@ -13,6 +14,7 @@ public class BookingResponse {
     private String vehicleTitle;
     private Vehicle.VehicleType vehicleType;
     private Long renterId;
+    private String renterName;
     private Booking.BookingStatus status;
     private LocalDateTime startAt;
     private LocalDateTime endAt;
@@ -20,6 +22,33 @@ public class BookingResponse {
     private BigDecimal totalAmount;
     private String currency;
     private String notes;
+    private LocalDateTime createdAt;
+
+    public BookingResponse() {
+    }
+
+    /**
+     * Constructor cho JPQL projection (SELECT new ...) để list bookings trong một câu SQL
+     */
+    public BookingResponse(Long id, Long vehicleId, String vehicleTitle, Vehicle.VehicleType vehicleType,
+                           Long renterId, String renterName, Booking.BookingStatus status,
+                           LocalDateTime startAt, LocalDateTime endAt, BigDecimal dailyPriceSnapshot,
+                           BigDecimal totalAmount, String currency, String notes, Timestamp createdAt) {
+        this.id = id;
+        this.vehicleId = vehicleId;
+        this.vehicleTitle = vehicleTitle;
+        this.vehicleType = vehicleType;
+        this.renterId = renterId;
+        this.renterName = renterName;
+        this.status = status;
+        this.startAt = startAt;
+        this.endAt = endAt;
+        this.dailyPriceSnapshot = dailyPriceSnapshot;
+        this.totalAmount = totalAmount;
+        this.currency = currency;
+        this.notes = notes;
+        this.createdAt = createdAt != null ? createdAt.toLocalDateTime() : null;
+    }
 
     public static BookingResponse fromEntity(Booking booking) {
         BookingResponse r = new BookingResponse();
@@ -28,6 +57,7 @@ public class BookingResponse {
         r.vehicleTitle = booking.getVehicle().getTitle();
         r.vehicleType = booking.getVehicle().getVehicleType();
         r.renterId = booking.getRenter().getId();
+        r.renterName = booking.getRenter().getFullName();
         r.status = booking.getStatus();
         r.startAt = booking.getStartAt();
         r.endAt = booking.getEndAt();
@@ -35,6 +65,7 @@ public class BookingResponse {
         r.totalAmount = booking.getTotalAmount();
         r.currency = booking.getCurrency();
         r.notes = booking.getNotes();
+        r.createdAt = booking.getCreatedAt() != null ? booking.getCreatedAt().toLocalDateTime() : null;
         return r;
     }
 
@@ -43,6 +74,7 @@ public class BookingResponse {
     public String getVehicleTitle() { return vehicleTitle; }
     public Vehicle.VehicleType getVehicleType() { return vehicleType; }
     public Long getRenterId() { return renterId; }
+    public String getRenterName() { return renterName; }
     public Booking.BookingStatus getStatus() { return status; }
     public LocalDateTime getStartAt() { return startAt; }
     public LocalDateTime getEndAt() { return endAt; }
@@ -50,6 +82,7 @@ public class BookingResponse {
     public BigDecimal getTotalAmount() { return totalAmount; }
     public String getCurrency() { return currency; }
     public String getNotes() { return notes; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
 }
 
 
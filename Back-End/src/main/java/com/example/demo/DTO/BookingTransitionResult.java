@@ -0,0 +1,34 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Entity.Booking;
+
+/**
+ * Kết quả chuyển trạng thái của từng booking trong một lô
+ */
+public class BookingTransitionResult {
+
+    private final Long id;
+    private final boolean success;
+    private final Booking.BookingStatus status;
+    private final String message;
+
+    private BookingTransitionResult(Long id, boolean success, Booking.BookingStatus status, String message) {
+        this.id = id;
+        this.success = success;
+        this.status = status;
+        this.message = message;
+    }
+
+    public static BookingTransitionResult ok(Long id, Booking.BookingStatus status) {
+        return new BookingTransitionResult(id, true, status, null);
+    }
+
+    public static BookingTransitionResult failed(Long id, String message) {
+        return new BookingTransitionResult(id, false, null, message);
+    }
+
+    public Long getId() { return id; }
+    public boolean isSuccess() { return success; }
+    public Booking.BookingStatus getStatus() { return status; }
+    public String getMessage() { return message; }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.DTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Báo giá đúng bằng số tiền createBooking sẽ snapshot
+ */
+public class PriceQuoteResponse {
+
+    private final Long vehicleId;
+    private final LocalDateTime startAt;
+    private final LocalDateTime endAt;
+    private final int days;
+    private final BigDecimal dailyPrice;
+    private final BigDecimal totalAmount;
+    private final String currency;
+
+    public PriceQuoteResponse(Long vehicleId, LocalDateTime startAt, LocalDateTime endAt, int days,
+                              BigDecimal dailyPrice, BigDecimal totalAmount, String currency) {
+        this.vehicleId = vehicleId;
+        this.startAt = startAt;
+        this.endAt = endAt;
+        this.days = days;
+        this.dailyPrice = dailyPrice;
+        this.totalAmount = totalAmount;
+        this.currency = currency;
+    }
+
+    public Long getVehicleId() { return vehicleId; }
+    public LocalDateTime getStartAt() { return startAt; }
+    public LocalDateTime getEndAt() { return endAt; }
+    public int getDays() { return days; }
+    public BigDecimal getDailyPrice() { return dailyPrice; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public String getCurrency() { return currency; }
+}
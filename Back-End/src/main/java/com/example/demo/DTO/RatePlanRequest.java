@@ -0,0 +1,103 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Entity.RatePlan;
+import com.example.demo.Entity.Vehicle;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+public class RatePlanRequest {
+
+    @NotBlank
+    @Size(max = 100)
+    private String name;
+
+    // null = mọi loại xe
+    private Vehicle.VehicleType vehicleType;
+
+    @NotNull
+    private RatePlan.Kind kind;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Min(2)
+    private Integer minDays;
+
+    // Basis point: -9000 (giảm 90%) .. 50000 (tăng 500%)
+    @NotNull
+    @Min(-9000)
+    @Max(50000)
+    private Integer adjustmentBp;
+
+    private Boolean active = true;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Vehicle.VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    public void setVehicleType(Vehicle.VehicleType vehicleType) {
+        this.vehicleType = vehicleType;
+    }
+
+    public RatePlan.Kind getKind() {
+        return kind;
+    }
+
+    public void setKind(RatePlan.Kind kind) {
+        this.kind = kind;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Integer getMinDays() {
+        return minDays;
+    }
+
+    public void setMinDays(Integer minDays) {
+        this.minDays = minDays;
+    }
+
+    public Integer getAdjustmentBp() {
+        return adjustmentBp;
+    }
+
+    public void setAdjustmentBp(Integer adjustmentBp) {
+        this.adjustmentBp = adjustmentBp;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Entity.RatePlan;
+import com.example.demo.Entity.Vehicle;
+
+import java.time.LocalDate;
+
+public class RatePlanResponse {
+
+    private Long id;
+    private String name;
+    private Vehicle.VehicleType vehicleType;
+    private RatePlan.Kind kind;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer minDays;
+    private Integer adjustmentBp;
+    private Boolean active;
+
+    public static RatePlanResponse fromEntity(RatePlan plan) {
+        RatePlanResponse r = new RatePlanResponse();
+        r.id = plan.getId();
+        r.name = plan.getName();
+        r.vehicleType = plan.getVehicleType();
+        r.kind = plan.getKind();
+        r.startDate = plan.getStartDate();
+        r.endDate = plan.getEndDate();
+        r.minDays = plan.getMinDays();
+        r.adjustmentBp = plan.getAdjustmentBp();
+        r.active = plan.getActive();
+        return r;
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public Vehicle.VehicleType getVehicleType() { return vehicleType; }
+    public RatePlan.Kind getKind() { return kind; }
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public Integer getMinDays() { return minDays; }
+    public Integer getAdjustmentBp() { return adjustmentBp; }
+    public Boolean getActive() { return active; }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Entity.Vehicle;
+
+/**
+ * Một dòng báo cáo theo ngày: theo xe (vehicleId có giá trị) hoặc theo loại xe (vehicleId null)
+ */
+public class UtilizationResponse {
+
+    private final String day;
+    private final Long vehicleId;
+    private final Vehicle.VehicleType vehicleType;
+    private final long bookedMinutes;
+    private final long revenueMinor;
+    private final int bookingCount;
+    private final double occupancyRate;
+
+    public UtilizationResponse(String day, Long vehicleId, Vehicle.VehicleType vehicleType, long bookedMinutes,
+                               long revenueMinor, int bookingCount, double occupancyRate) {
+        this.day = day;
+        this.vehicleId = vehicleId;
+        this.vehicleType = vehicleType;
+        this.bookedMinutes = bookedMinutes;
+        this.revenueMinor = revenueMinor;
+        this.bookingCount = bookingCount;
+        this.occupancyRate = occupancyRate;
+    }
+
+    public String getDay() { return day; }
+    public Long getVehicleId() { return vehicleId; }
+    public Vehicle.VehicleType getVehicleType() { return vehicleType; }
+    public long getBookedMinutes() { return bookedMinutes; }
+    public long getRevenueMinor() { return revenueMinor; }
+    public int getBookingCount() { return bookingCount; }
+    public double getOccupancyRate() { return occupancyRate; }
+}
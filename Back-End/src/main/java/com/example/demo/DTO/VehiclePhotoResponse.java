@@ -9,10 +9,13 @@ public class VehiclePhotoResponse {
     private Boolean isPrimary;
     
     public static VehiclePhotoResponse fromEntity(VehiclePhoto photo, String baseUrl) {
+        return of(photo.getId(), photo.getUrl(), photo.getIsPrimary(), baseUrl);
+    }
+
+    public static VehiclePhotoResponse of(Long id, String photoUrl, Boolean isPrimary, String baseUrl) {
         VehiclePhotoResponse resp = new VehiclePhotoResponse();
-        resp.id = photo.getId();
+        resp.id = id;
         // Convert relative URL to full URL
-        String photoUrl = photo.getUrl();
         if (photoUrl != null && !photoUrl.startsWith("http")) {
             // If it's a relative path, prepend base URL
             if (photoUrl.startsWith("/")) {
@@ -23,7 +26,7 @@ public class VehiclePhotoResponse {
         } else {
             resp.url = photoUrl;
         }
-        resp.isPrimary = photo.getIsPrimary();
+        resp.isPrimary = isPrimary;
         return resp;
     }
     
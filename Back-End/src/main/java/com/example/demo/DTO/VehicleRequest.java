@@ -4,6 +4,7 @@ import com.example.demo.Entity.Vehicle;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
@@ -27,8 +28,9 @@ public class VehicleRequest {
     @DecimalMin("0.0")
     private BigDecimal dailyPrice;
 
+    // Mã ISO 4217 viết hoa; mã không có trong ISO bị VehicleService từ chối
     @NotBlank
-    @Size(min = 3, max = 3)
+    @Pattern(regexp = "[A-Z]{3}")
     private String currency;
 
     private String description;
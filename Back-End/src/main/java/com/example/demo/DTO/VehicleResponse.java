@@ -2,6 +2,7 @@ package com.example.demo.DTO;
 
 import com.example.demo.Entity.Vehicle;
 import com.example.demo.Entity.VehiclePhoto;
+import com.example.demo.Service.VehicleCatalog;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -59,6 +60,33 @@ public class VehicleResponse {
         return resp;
     }
     
+    /**
+     * Từ snapshot VehicleCatalog (không chạm entity/Hibernate)
+     */
+    public static VehicleResponse fromCatalog(VehicleCatalog.Entry entry, String baseUrl) {
+        VehicleResponse resp = new VehicleResponse();
+        resp.id = entry.id();
+        resp.title = entry.title();
+        resp.vehicleType = entry.vehicleType();
+        resp.licensePlate = entry.licensePlate();
+        resp.dailyPrice = entry.dailyPrice();
+        resp.currency = entry.currency();
+        resp.status = entry.status();
+        resp.description = entry.description();
+        if (!entry.photos().isEmpty()) {
+            resp.photos = entry.photos().stream()
+                    .map(photo -> VehiclePhotoResponse.of(photo.id(), photo.url(), photo.isPrimary(), baseUrl))
+                    .collect(Collectors.toList());
+            String primaryUrl = entry.photos().stream()
+                    .filter(photo -> Boolean.TRUE.equals(photo.isPrimary()))
+                    .findFirst()
+                    .orElse(entry.photos().get(0))
+                    .url();
+            resp.primaryPhotoUrl = buildFullUrl(primaryUrl, baseUrl);
+        }
+        return resp;
+    }
+
     // Overload for backward compatibility
     public static VehicleResponse fromEntity(Vehicle vehicle) {
         return fromEntity(vehicle, "http://localhost:8080");
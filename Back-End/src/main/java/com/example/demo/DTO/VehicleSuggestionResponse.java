@@ -0,0 +1,28 @@
+package com.example.demo.DTO;
+
+/**
+ * Một gợi ý khi gõ: tên xe hoặc biển số. vehicleId chỉ có khi gợi ý ứng với đúng một xe
+ */
+public class VehicleSuggestionResponse {
+
+    public enum Kind {
+        TITLE, PLATE
+    }
+
+    private final String text;
+    private final Kind kind;
+    private final Long vehicleId;
+    private final int vehicleCount;
+
+    public VehicleSuggestionResponse(String text, Kind kind, Long vehicleId, int vehicleCount) {
+        this.text = text;
+        this.kind = kind;
+        this.vehicleId = vehicleId;
+        this.vehicleCount = vehicleCount;
+    }
+
+    public String getText() { return text; }
+    public Kind getKind() { return kind; }
+    public Long getVehicleId() { return vehicleId; }
+    public int getVehicleCount() { return vehicleCount; }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Entity.WaitlistEntry;
+
+import java.time.LocalDateTime;
+
+public class WaitlistResponse {
+
+    private Long id;
+    private Long vehicleId;
+    private String vehicleTitle;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+    private WaitlistEntry.Status status;
+    private String holdId;
+    private LocalDateTime offerExpiresAt;
+
+    public static WaitlistResponse fromEntity(WaitlistEntry entry) {
+        WaitlistResponse r = new WaitlistResponse();
+        r.id = entry.getId();
+        r.vehicleId = entry.getVehicle().getId();
+        r.vehicleTitle = entry.getVehicle().getTitle();
+        r.startAt = entry.getStartAt();
+        r.endAt = entry.getEndAt();
+        r.status = entry.getStatus();
+        r.holdId = entry.getHoldId();
+        r.offerExpiresAt = entry.getOfferExpiresAt();
+        return r;
+    }
+
+    public Long getId() { return id; }
+    public Long getVehicleId() { return vehicleId; }
+    public String getVehicleTitle() { return vehicleTitle; }
+    public LocalDateTime getStartAt() { return startAt; }
+    public LocalDateTime getEndAt() { return endAt; }
+    public WaitlistEntry.Status getStatus() { return status; }
+    public String getHoldId() { return holdId; }
+    public LocalDateTime getOfferExpiresAt() { return offerExpiresAt; }
+}
@@ -8,7 +8,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        // findOverlaps / findOverlapsForVehicles / findAvailableVehicles (NOT EXISTS) / findActiveIntervalsForVehicles
+        @Index(name = "idx_bookings_vehicle_status_range", columnList = "vehicle_id, status, start_at, end_at"),
+        // Keyset pagination /api/bookings/me (customer và admin)
+        @Index(name = "idx_bookings_renter_created", columnList = "renter_id, created_at DESC, id DESC"),
+        @Index(name = "idx_bookings_created", columnList = "created_at DESC, id DESC"),
+        // Range scan của BookingLifecycleScheduler
+        @Index(name = "idx_bookings_status_start", columnList = "status, start_at"),
+        @Index(name = "idx_bookings_status_end", columnList = "status, end_at")
+})
 public class Booking {
 
     @Id
@@ -59,8 +68,20 @@ public class Booking {
     @Column(name = "updated_at", insertable = false, updatable = false)
     private java.sql.Timestamp updatedAt;
 
+    // Optimistic locking: hai nhân viên đổi trạng thái cùng lúc thì một người bị từ chối thay vì ghi đè
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public enum BookingStatus {
-        PENDING, CONFIRMED, ACTIVE, COMPLETED, CANCELLED, REFUNDED
+        PENDING, CONFIRMED, ACTIVE, COMPLETED, CANCELLED, REFUNDED;
+
+        /**
+         * Các trạng thái giữ chỗ xe (cùng tập với findOverlaps)
+         */
+        public boolean blocksVehicle() {
+            return this == PENDING || this == CONFIRMED || this == ACTIVE;
+        }
     }
 
     public Long getId() {
@@ -146,6 +167,10 @@ public class Booking {
     public java.sql.Timestamp getUpdatedAt() {
         return updatedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
 }
 
 
@@ -0,0 +1,126 @@
+package com.example.demo.Entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+/**
+ * Điều chỉnh giá thuê theo basis point (1 bp = 0.01%): -1000 = giảm 10%, 2000 = tăng 20%.
+ * SEASONAL và WEEKEND cộng vào hệ số từng ngày; LONG_RENTAL áp cho cả booking khi đủ minDays.
+ */
+@Entity
+@Table(name = "rate_plans")
+public class RatePlan {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Size(max = 100)
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    // null = áp dụng cho mọi loại xe
+    @Enumerated(EnumType.STRING)
+    @Column(name = "vehicle_type", length = 20)
+    private Vehicle.VehicleType vehicleType;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 20)
+    private Kind kind;
+
+    // SEASONAL: khoảng ngày áp dụng (tính cả hai đầu)
+    @Column(name = "start_date")
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    // LONG_RENTAL: số ngày thuê tối thiểu
+    @Column(name = "min_days")
+    private Integer minDays;
+
+    @NotNull
+    @Column(name = "adjustment_bp", nullable = false)
+    private Integer adjustmentBp;
+
+    @Column(name = "active", nullable = false)
+    private Boolean active = true;
+
+    public enum Kind {
+        SEASONAL, WEEKEND, LONG_RENTAL
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Vehicle.VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    public void setVehicleType(Vehicle.VehicleType vehicleType) {
+        this.vehicleType = vehicleType;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public void setKind(Kind kind) {
+        this.kind = kind;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Integer getMinDays() {
+        return minDays;
+    }
+
+    public void setMinDays(Integer minDays) {
+        this.minDays = minDays;
+    }
+
+    public Integer getAdjustmentBp() {
+        return adjustmentBp;
+    }
+
+    public void setAdjustmentBp(Integer adjustmentBp) {
+        this.adjustmentBp = adjustmentBp;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+}
@@ -9,7 +9,13 @@ import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "vehicles")
+@Table(name = "vehicles", indexes = {
+        // findAvailableVehicles khi lọc theo loại xe và khoảng giá
+        @Index(name = "idx_vehicles_type_price", columnList = "vehicle_type, daily_price"),
+        // keyset pagination theo (giá, id) và (created_at, id)
+        @Index(name = "idx_vehicles_price_id", columnList = "daily_price, id"),
+        @Index(name = "idx_vehicles_created_id", columnList = "created_at, id")
+})
 public class Vehicle {
 
     @Id
@@ -55,6 +61,10 @@ public class Vehicle {
     @Column(name = "created_at", insertable = false, updatable = false)
     private java.sql.Timestamp createdAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @OneToMany(mappedBy = "vehicle", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private java.util.List<VehiclePhoto> photos;
 
@@ -132,6 +142,10 @@ public class Vehicle {
         return createdAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public java.util.List<VehiclePhoto> getPhotos() {
         return photos;
     }
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name = "vehicle_photos")
+@Table(name = "vehicle_photos", indexes = {
+        // findByVehicleIdOrderByIsPrimaryDescCreatedAtAsc / findByVehicleIdAndIsPrimaryTrue
+        @Index(name = "idx_vehicle_photos_vehicle_primary_created", columnList = "vehicle_id, is_primary, created_at")
+})
 public class VehiclePhoto {
     
     @Id
@@ -0,0 +1,127 @@
+package com.example.demo.Entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Khách chờ một xe trong [startAt, endAt) khi khoảng đó đã kín. Khi có booking bị hủy/hoàn tất sớm
+ * làm trống khoảng này, hệ thống giữ chỗ (hold) cho khách và chuyển entry sang OFFERED.
+ */
+@Entity
+@Table(name = "booking_waitlist", indexes = {
+        @Index(name = "idx_waitlist_status_vehicle", columnList = "status, vehicle_id"),
+        // Tìm entry đang chờ giao khoảng vừa trống của một xe
+        @Index(name = "idx_waitlist_vehicle_status_start", columnList = "vehicle_id, status, start_at"),
+        @Index(name = "idx_waitlist_user_created", columnList = "user_id, created_at"),
+        // Dọn entry đang chờ đã tới giờ bắt đầu
+        @Index(name = "idx_waitlist_status_start", columnList = "status, start_at"),
+        // Tìm offer theo hold khi hold hết hạn
+        @Index(name = "idx_waitlist_hold", columnList = "hold_id")
+})
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "vehicle_id", nullable = false)
+    private Vehicle vehicle;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @NotNull
+    @Column(name = "start_at", nullable = false)
+    private LocalDateTime startAt;
+
+    @NotNull
+    @Column(name = "end_at", nullable = false)
+    private LocalDateTime endAt;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.WAITING;
+
+    // Hold được giữ cho khách khi OFFERED (đặt xe trước offerExpiresAt để dùng hold)
+    @Column(name = "hold_id", length = 36)
+    private String holdId;
+
+    @Column(name = "offer_expires_at")
+    private LocalDateTime offerExpiresAt;
+
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private java.sql.Timestamp createdAt;
+
+    public enum Status {
+        WAITING, OFFERED, CANCELLED, EXPIRED
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    public void setVehicle(Vehicle vehicle) {
+        this.vehicle = vehicle;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public LocalDateTime getStartAt() {
+        return startAt;
+    }
+
+    public void setStartAt(LocalDateTime startAt) {
+        this.startAt = startAt;
+    }
+
+    public LocalDateTime getEndAt() {
+        return endAt;
+    }
+
+    public void setEndAt(LocalDateTime endAt) {
+        this.endAt = endAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(String holdId) {
+        this.holdId = holdId;
+    }
+
+    public LocalDateTime getOfferExpiresAt() {
+        return offerExpiresAt;
+    }
+
+    public void setOfferExpiresAt(LocalDateTime offerExpiresAt) {
+        this.offerExpiresAt = offerExpiresAt;
+    }
+
+    public java.sql.Timestamp getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.Repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bảng booking_holds và bộ đếm hold theo user (không có entity JPA)
+ */
+@Repository
+public class BookingHoldJdbcRepository {
+
+    private static final String COLUMNS = "id, vehicle_id, user_id, start_at, end_at, expires_at";
+
+    private static final RowMapper<StoredHold> HOLD_MAPPER = (rs, rowNum) -> new StoredHold(
+            rs.getString("id"),
+            rs.getLong("vehicle_id"),
+            rs.getLong("user_id"),
+            rs.getTimestamp("start_at").toLocalDateTime(),
+            rs.getTimestamp("end_at").toLocalDateTime(),
+            rs.getTimestamp("expires_at").toLocalDateTime());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insert(StoredHold hold) {
+        jdbcTemplate.update("INSERT INTO booking_holds (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)",
+                hold.id(), hold.vehicleId(), hold.userId(), Timestamp.valueOf(hold.startAt()),
+                Timestamp.valueOf(hold.endAt()), Timestamp.valueOf(hold.expiresAt()));
+    }
+
+    public Optional<StoredHold> findActive(String id, LocalDateTime now) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM booking_holds WHERE id = ? AND expires_at > ?",
+                HOLD_MAPPER, id, Timestamp.valueOf(now)).stream().findFirst();
+    }
+
+    /**
+     * Có hold còn hạn của user khác giao [startAt, endAt) (idx_booking_holds_vehicle_start)
+     */
+    public boolean existsHeldByOthers(Long vehicleId, LocalDateTime startAt, LocalDateTime endAt, Long userId,
+                                      LocalDateTime now) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM booking_holds WHERE vehicle_id = ? AND start_at < ? "
+                        + "AND end_at > ? AND user_id <> ? AND expires_at > ? LIMIT 1", Integer.class,
+                vehicleId, Timestamp.valueOf(endAt), Timestamp.valueOf(startAt), userId, Timestamp.valueOf(now)).isEmpty();
+    }
+
+    /**
+     * Khóa các hold của user giao [startAt, endAt) (kể cả đã quá hạn mà chưa dọn)
+     */
+    public List<StoredHold> lockOverlappingForUser(Long vehicleId, LocalDateTime startAt, LocalDateTime endAt, Long userId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM booking_holds WHERE vehicle_id = ? AND start_at < ? "
+                        + "AND end_at > ? AND user_id = ? FOR UPDATE", HOLD_MAPPER,
+                vehicleId, Timestamp.valueOf(endAt), Timestamp.valueOf(startAt), userId);
+    }
+
+    /**
+     * Claim các hold đã hết hạn; node khác đang dọn thì bỏ qua các dòng nó đã khóa
+     */
+    public List<StoredHold> lockExpired(LocalDateTime now, int limit) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM booking_holds WHERE expires_at <= ? "
+                + "ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED", HOLD_MAPPER, Timestamp.valueOf(now), limit);
+    }
+
+    /**
+     * Số dòng đã xóa: 0 nghĩa là hold đã được dùng, hủy hoặc dọn ở nơi khác
+     */
+    public int delete(String id) {
+        return jdbcTemplate.update("DELETE FROM booking_holds WHERE id = ?", id);
+    }
+
+    public void deleteAll(Collection<String> ids) {
+        List<String> list = List.copyOf(ids);
+        jdbcTemplate.batchUpdate("DELETE FROM booking_holds WHERE id = ?", list, list.size(),
+                (ps, id) -> ps.setString(1, id));
+    }
+
+    /**
+     * Tăng số hold của user nếu còn dưới max; dòng đếm bị khóa tới khi transaction kết thúc nên
+     * các request đồng thời của cùng user không vượt giới hạn
+     */
+    public boolean reserveSlot(Long userId, int max) {
+        jdbcTemplate.update("INSERT IGNORE INTO booking_hold_counts (user_id, holds) VALUES (?, 0)", userId);
+        return jdbcTemplate.update("UPDATE booking_hold_counts SET holds = holds + 1 WHERE user_id = ? AND holds < ?",
+                userId, max) == 1;
+    }
+
+    public void releaseSlots(Long userId, int count) {
+        jdbcTemplate.update("UPDATE booking_hold_counts SET holds = GREATEST(holds - ?, 0) WHERE user_id = ?",
+                count, userId);
+    }
+
+    public record StoredHold(String id, Long vehicleId, Long userId, LocalDateTime startAt, LocalDateTime endAt,
+                             LocalDateTime expiresAt) {
+    }
+}
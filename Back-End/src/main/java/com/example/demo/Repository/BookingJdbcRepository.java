@@ -0,0 +1,198 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Entity.Booking;
+import com.example.demo.Entity.Vehicle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thao tác set-based trên bookings qua JDBC: batch insert (IDENTITY id khiến Hibernate không batch được insert),
+ * claim booking đến hạn bằng SKIP LOCKED và bulk update trạng thái
+ */
+@Repository
+public class BookingJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO bookings (vehicle_id, renter_id, status, start_at, end_at, daily_price_snapshot, total_amount, currency, notes) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Claim các booking đến hạn, bỏ qua dòng đang bị node khác khóa (chạy song song nhiều node an toàn)
+    private static final String CLAIM_DUE_BY_START_SQL =
+            "SELECT id, vehicle_id, start_at, end_at FROM bookings WHERE status = ? AND start_at <= ? "
+                    + "ORDER BY start_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String CLAIM_DUE_BY_END_SQL =
+            "SELECT id, vehicle_id, start_at, end_at FROM bookings WHERE status = ? AND end_at <= ? "
+                    + "ORDER BY end_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    // Export cho kế toán: đi theo idx_bookings_status_end, không sort thêm
+    private static final String EXPORT_SQL =
+            "SELECT b.id, b.vehicle_id, v.title AS vehicle_title, b.renter_id, u.`full-name` AS renter_name, b.status, "
+                    + "b.start_at, b.end_at, b.daily_price_snapshot, b.total_amount, b.currency, b.created_at "
+                    + "FROM bookings b JOIN vehicles v ON v.id = b.vehicle_id JOIN users u ON u.id = b.renter_id "
+                    + "WHERE b.status = ? AND b.end_at >= ? AND b.end_at < ? ORDER BY b.end_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Insert nhiều booking trong một batch, trả về id theo đúng thứ tự đầu vào
+     */
+    public List<Long> insertAll(List<Booking> bookings) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Booking b = bookings.get(i);
+                        ps.setLong(1, b.getVehicle().getId());
+                        ps.setLong(2, b.getRenter().getId());
+                        ps.setString(3, b.getStatus().name());
+                        ps.setTimestamp(4, Timestamp.valueOf(b.getStartAt()));
+                        ps.setTimestamp(5, Timestamp.valueOf(b.getEndAt()));
+                        ps.setBigDecimal(6, b.getDailyPriceSnapshot());
+                        ps.setBigDecimal(7, b.getTotalAmount());
+                        ps.setString(8, b.getCurrency());
+                        ps.setString(9, b.getNotes());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                },
+                keyHolder);
+
+        List<Long> ids = new ArrayList<>(bookings.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * Claim tối đa limit booking ở trạng thái status có start_at <= now (phải gọi trong transaction)
+     */
+    public List<DueBooking> claimDueByStart(Booking.BookingStatus status, LocalDateTime now, int limit) {
+        return jdbcTemplate.query(CLAIM_DUE_BY_START_SQL, DUE_BOOKING_MAPPER, status.name(), Timestamp.valueOf(now), limit);
+    }
+
+    /**
+     * Claim tối đa limit booking ở trạng thái status có end_at <= now (phải gọi trong transaction)
+     */
+    public List<DueBooking> claimDueByEnd(Booking.BookingStatus status, LocalDateTime now, int limit) {
+        return jdbcTemplate.query(CLAIM_DUE_BY_END_SQL, DUE_BOOKING_MAPPER, status.name(), Timestamp.valueOf(now), limit);
+    }
+
+    /**
+     * Đổi trạng thái nhiều booking trong một câu UPDATE (tăng version để các transaction JPA đang giữ bản cũ bị từ chối)
+     */
+    public int updateStatus(Collection<Long> ids, Booking.BookingStatus status) {
+        return namedJdbcTemplate.update("UPDATE bookings SET status = :status, version = version + 1 WHERE id IN (:ids)",
+                new MapSqlParameterSource().addValue("status", status.name()).addValue("ids", ids));
+    }
+
+    /**
+     * Đổi trạng thái nhiều booking, chỉ những booking còn ở trạng thái expected; trả về số dòng đã đổi
+     */
+    public int updateStatus(Collection<Long> ids, Booking.BookingStatus expected, Booking.BookingStatus status) {
+        return namedJdbcTemplate.update(
+                "UPDATE bookings SET status = :status, version = version + 1 WHERE id IN (:ids) AND status = :expected",
+                new MapSqlParameterSource()
+                        .addValue("status", status.name())
+                        .addValue("expected", expected.name())
+                        .addValue("ids", ids));
+    }
+
+    /**
+     * Đổi trạng thái nhiều xe, chỉ những xe đang ở trạng thái expected
+     */
+    public int updateVehicleStatus(Collection<Long> vehicleIds, Vehicle.VehicleStatus expected, Vehicle.VehicleStatus status) {
+        return namedJdbcTemplate.update("UPDATE vehicles SET status = :status, version = version + 1 WHERE id IN (:ids) AND status = :expected",
+                new MapSqlParameterSource()
+                        .addValue("status", status.name())
+                        .addValue("expected", expected.name())
+                        .addValue("ids", vehicleIds));
+    }
+
+    /**
+     * Trả các xe RENTED về AVAILABLE, trừ xe còn booking ACTIVE khác (bàn giao nối tiếp cho khách sau)
+     */
+    public int releaseVehicles(Collection<Long> vehicleIds) {
+        return namedJdbcTemplate.update("UPDATE vehicles SET status = :status, version = version + 1 "
+                        + "WHERE id IN (:ids) AND status = :expected "
+                        + "AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.vehicle_id = vehicles.id AND b.status = :active)",
+                new MapSqlParameterSource()
+                        .addValue("status", Vehicle.VehicleStatus.AVAILABLE.name())
+                        .addValue("expected", Vehicle.VehicleStatus.RENTED.name())
+                        .addValue("active", Booking.BookingStatus.ACTIVE.name())
+                        .addValue("ids", vehicleIds));
+    }
+
+    /**
+     * Duyệt các booking có end_at trong [from, to) theo con trỏ forward-only: MySQL Connector/J chỉ stream
+     * từng dòng khi fetchSize = Integer.MIN_VALUE, nên bộ nhớ không phụ thuộc số dòng.
+     * Handler ném exception (client ngắt kết nối) thì hủy câu lệnh trước khi đóng: đóng result set đang stream
+     * mà không hủy thì driver đọc bỏ toàn bộ các dòng còn lại
+     */
+    public void streamForExport(Booking.BookingStatus status, LocalDateTime from, LocalDateTime to,
+                                RowCallbackHandler handler) {
+        PreparedStatement[] statement = new PreparedStatement[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setString(1, status.name());
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            statement[0] = ps;
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            try {
+                handler.processRow(rs);
+            } catch (RuntimeException e) {
+                cancelQuietly(statement[0]);
+                throw e;
+            }
+        });
+    }
+
+    private static void cancelQuietly(PreparedStatement ps) {
+        try {
+            ps.cancel();
+        } catch (SQLException e) {
+            // Câu lệnh đã xong hoặc connection đã hỏng: đóng result set như bình thường
+        }
+    }
+
+    private static final RowMapper<DueBooking> DUE_BOOKING_MAPPER = (rs, rowNum) -> new DueBooking(
+            rs.getLong("id"),
+            rs.getLong("vehicle_id"),
+            rs.getTimestamp("start_at").toLocalDateTime(),
+            rs.getTimestamp("end_at").toLocalDateTime());
+
+    public record DueBooking(Long id, Long vehicleId, LocalDateTime startAt, LocalDateTime endAt) {
+    }
+}
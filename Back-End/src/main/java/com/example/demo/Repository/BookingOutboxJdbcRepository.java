@@ -0,0 +1,213 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Entity.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bảng booking_outbox và offset theo sink (không có entity JPA)
+ */
+@Repository
+public class BookingOutboxJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO booking_outbox (booking_id, vehicle_id, from_status, to_status, start_at, end_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Đọc event đã ghi quá settle để phần lớn transaction ghi id nhỏ hơn kịp commit; id vẫn thiếu thì thành gap
+    private static final String FIND_AFTER_SQL =
+            "SELECT id, booking_id, vehicle_id, from_status, to_status, start_at, end_at, occurred_at FROM booking_outbox "
+                    + "WHERE id > ? AND occurred_at < NOW(3) - INTERVAL ? MICROSECOND ORDER BY id LIMIT ?";
+
+    private static final String FIND_GAP_ARRIVALS_SQL =
+            "SELECT e.id, e.booking_id, e.vehicle_id, e.from_status, e.to_status, e.start_at, e.end_at, e.occurred_at "
+                    + "FROM booking_outbox_gaps g JOIN booking_outbox e ON e.id = g.event_id "
+                    + "WHERE g.sink = ? ORDER BY e.id LIMIT ?";
+
+    private static final String DEAD_LETTER_EVENT_SQL =
+            "INSERT INTO booking_outbox_dead_letters "
+                    + "(sink, event_id, reason, booking_id, vehicle_id, from_status, to_status, error) "
+                    + "SELECT ?, id, 'SINK_FAILED', booking_id, vehicle_id, from_status, to_status, ? "
+                    + "FROM booking_outbox WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Ghi các event của một transaction trong một batch
+     */
+    public void insertAll(List<NewEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, e) -> {
+            ps.setLong(1, e.bookingId());
+            ps.setLong(2, e.vehicleId());
+            ps.setString(3, e.from() == null ? null : e.from().name());
+            ps.setString(4, e.to().name());
+            ps.setTimestamp(5, Timestamp.valueOf(e.startAt()));
+            ps.setTimestamp(6, Timestamp.valueOf(e.endAt()));
+        });
+    }
+
+    public List<OutboxEvent> findAfter(long afterId, long settleMillis, int limit) {
+        return jdbcTemplate.query(FIND_AFTER_SQL, EVENT_MAPPER, afterId, settleMillis * 1000, limit);
+    }
+
+    /**
+     * Id event lớn nhất hiện có (0 khi outbox rỗng)
+     */
+    public long maxId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM booking_outbox", Long.class);
+        return max == null ? 0 : max;
+    }
+
+    public void ensureOffset(String sink) {
+        jdbcTemplate.update("INSERT IGNORE INTO booking_outbox_offsets (sink, last_event_id) VALUES (?, 0)", sink);
+    }
+
+    /**
+     * Khóa offset của sink (phải gọi trong transaction); rỗng nếu node khác đang relay cho sink này
+     */
+    public Optional<SinkOffset> lockOffset(String sink) {
+        return jdbcTemplate.query("SELECT last_event_id, failed_event_id, failures, last_error FROM booking_outbox_offsets "
+                        + "WHERE sink = ? FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new SinkOffset(rs.getLong("last_event_id"), rs.getObject("failed_event_id", Long.class),
+                        rs.getInt("failures"), rs.getString("last_error")),
+                sink).stream().findFirst();
+    }
+
+    /**
+     * Lưu offset sau một batch thành công và xóa bộ đếm lỗi
+     */
+    public void saveOffset(String sink, long lastEventId) {
+        jdbcTemplate.update("UPDATE booking_outbox_offsets SET last_event_id = ?, failed_event_id = NULL, failures = 0, "
+                + "last_error = NULL WHERE sink = ?", lastEventId, sink);
+    }
+
+    /**
+     * Đếm lần lỗi liên tiếp của eventId; lỗi ở event khác thì đếm lại từ 1
+     */
+    public void recordFailure(String sink, long eventId, String error) {
+        jdbcTemplate.update("UPDATE booking_outbox_offsets SET "
+                        + "failures = CASE WHEN failed_event_id = ? THEN failures + 1 ELSE 1 END, "
+                        + "failed_event_id = ?, last_error = ? WHERE sink = ?",
+                eventId, eventId, truncate(error), sink);
+    }
+
+    /**
+     * Event của các gap đã xuất hiện (transaction ghi chúng commit muộn)
+     */
+    public List<OutboxEvent> findGapArrivals(String sink, int limit) {
+        return jdbcTemplate.query(FIND_GAP_ARRIVALS_SQL, EVENT_MAPPER, sink, limit);
+    }
+
+    public void addGaps(String sink, List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO booking_outbox_gaps (sink, event_id) VALUES (?, ?)",
+                eventIds, eventIds.size(), (ps, id) -> {
+                    ps.setString(1, sink);
+                    ps.setLong(2, id);
+                });
+    }
+
+    public void deleteGaps(String sink, Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        namedJdbcTemplate.update("DELETE FROM booking_outbox_gaps WHERE sink = :sink AND event_id IN (:ids)",
+                new MapSqlParameterSource("sink", sink).addValue("ids", eventIds));
+    }
+
+    /**
+     * Gap mở quá timeoutMillis: coi id là mất (thường là transaction đã rollback), ghi dead letter GAP_TIMEOUT rồi bỏ gap
+     */
+    public List<Long> expireGaps(String sink, long timeoutMillis) {
+        List<Long> expired = jdbcTemplate.queryForList("SELECT event_id FROM booking_outbox_gaps "
+                        + "WHERE sink = ? AND first_seen_at < NOW(3) - INTERVAL ? MICROSECOND ORDER BY event_id",
+                Long.class, sink, timeoutMillis * 1000);
+        if (!expired.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO booking_outbox_dead_letters (sink, event_id, reason) VALUES (?, ?, 'GAP_TIMEOUT')",
+                    expired, expired.size(), (ps, id) -> {
+                        ps.setString(1, sink);
+                        ps.setLong(2, id);
+                    });
+            deleteGaps(sink, expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Chép event sink xử lý lỗi quá số lần cho phép sang dead letter (giữ cả nội dung vì outbox sẽ bị purge)
+     */
+    public void deadLetter(String sink, long eventId, String error) {
+        jdbcTemplate.update(DEAD_LETTER_EVENT_SQL, sink, truncate(error), eventId);
+    }
+
+    public int purgeDeadLetters(LocalDateTime olderThan, int limit) {
+        return jdbcTemplate.update("DELETE FROM booking_outbox_dead_letters WHERE recorded_at < ? ORDER BY id LIMIT ?",
+                Timestamp.valueOf(olderThan), limit);
+    }
+
+    /**
+     * Offset nhỏ nhất trong các sink đang đăng ký (event nhỏ hơn hoặc bằng đã được mọi sink xử lý)
+     */
+    public long minOffset(Collection<String> sinks) {
+        Long min = namedJdbcTemplate.queryForObject(
+                "SELECT MIN(last_event_id) FROM booking_outbox_offsets WHERE sink IN (:sinks)",
+                new MapSqlParameterSource("sinks", sinks), Long.class);
+        return min == null ? 0 : min;
+    }
+
+    /**
+     * Xóa tối đa limit event đã được mọi sink xử lý và cũ hơn olderThan
+     */
+    public int purge(long upToId, LocalDateTime olderThan, int limit) {
+        return jdbcTemplate.update("DELETE FROM booking_outbox WHERE id <= ? AND occurred_at < ? ORDER BY id LIMIT ?",
+                upToId, Timestamp.valueOf(olderThan), limit);
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+
+    private static final RowMapper<OutboxEvent> EVENT_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("id"),
+            rs.getLong("booking_id"),
+            rs.getLong("vehicle_id"),
+            rs.getString("from_status") == null ? null : Booking.BookingStatus.valueOf(rs.getString("from_status")),
+            Booking.BookingStatus.valueOf(rs.getString("to_status")),
+            rs.getTimestamp("start_at").toLocalDateTime(),
+            rs.getTimestamp("end_at").toLocalDateTime(),
+            rs.getTimestamp("occurred_at").toLocalDateTime());
+
+    /**
+     * Event chưa ghi; from null nghĩa là booking vừa được tạo
+     */
+    public record NewEvent(long bookingId, long vehicleId, Booking.BookingStatus from, Booking.BookingStatus to,
+                           LocalDateTime startAt, LocalDateTime endAt) {
+    }
+
+    /**
+     * Offset của sink: mọi id <= lastEventId đã giao, trừ các id đang nằm trong booking_outbox_gaps
+     */
+    public record SinkOffset(long lastEventId, Long failedEventId, int failures, String lastError) {
+    }
+
+    public record OutboxEvent(long id, long bookingId, long vehicleId, Booking.BookingStatus from,
+                              Booking.BookingStatus to, LocalDateTime startAt, LocalDateTime endAt,
+                              LocalDateTime occurredAt) {
+    }
+}
@@ -1,26 +1,111 @@
 package com.example.demo.Repository;
 
+import com.example.demo.DTO.BookingResponse;
 import com.example.demo.Entity.Booking;
 import com.example.demo.Entity.Vehicle;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    /**
+     * Các thao tác trên một booking (confirm/cancel/...) luôn cần vehicle và renter, fetch cùng một câu SQL
+     */
+    @Override
+    @EntityGraph(attributePaths = {"vehicle", "renter"})
+    Optional<Booking> findById(Long id);
+
+    /**
+     * Load nhiều booking cùng xe của chúng trong một câu (chuyển trạng thái hàng loạt)
+     */
+    @EntityGraph(attributePaths = {"vehicle"})
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids")
+    List<Booking> findAllWithVehicleByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT b FROM Booking b WHERE b.vehicle = :vehicle AND b.status IN (com.example.demo.Entity.Booking$BookingStatus.PENDING, com.example.demo.Entity.Booking$BookingStatus.CONFIRMED, com.example.demo.Entity.Booking$BookingStatus.ACTIVE) AND (:startAt < b.endAt AND :endAt > b.startAt)")
     List<Booking> findOverlaps(@Param("vehicle") Vehicle vehicle,
                                @Param("startAt") LocalDateTime startAt,
                                @Param("endAt") LocalDateTime endAt);
 
+    /**
+     * Overlap của nhiều xe trong một query (cho đặt nhiều xe cùng lúc)
+     */
+    @Query("SELECT b FROM Booking b WHERE b.vehicle.id IN :vehicleIds AND b.status IN (com.example.demo.Entity.Booking$BookingStatus.PENDING, com.example.demo.Entity.Booking$BookingStatus.CONFIRMED, com.example.demo.Entity.Booking$BookingStatus.ACTIVE) AND (:startAt < b.endAt AND :endAt > b.startAt)")
+    List<Booking> findOverlapsForVehicles(@Param("vehicleIds") Collection<Long> vehicleIds,
+                                          @Param("startAt") LocalDateTime startAt,
+                                          @Param("endAt") LocalDateTime endAt);
+
+    /**
+     * Tìm xe còn trống trong [startAt, endAt) bằng một câu NOT EXISTS (cùng điều kiện với findOverlaps),
+     * kết hợp filter type/giá và phân trang
+     */
+    @Query(value = "SELECT v FROM Vehicle v WHERE (:type IS NULL OR v.vehicleType = :type) AND (:minPrice IS NULL OR v.dailyPrice >= :minPrice) AND (:maxPrice IS NULL OR v.dailyPrice <= :maxPrice) AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.vehicle = v AND b.status IN (com.example.demo.Entity.Booking$BookingStatus.PENDING, com.example.demo.Entity.Booking$BookingStatus.CONFIRMED, com.example.demo.Entity.Booking$BookingStatus.ACTIVE) AND (:startAt < b.endAt AND :endAt > b.startAt))",
+           countQuery = "SELECT COUNT(v) FROM Vehicle v WHERE (:type IS NULL OR v.vehicleType = :type) AND (:minPrice IS NULL OR v.dailyPrice >= :minPrice) AND (:maxPrice IS NULL OR v.dailyPrice <= :maxPrice) AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.vehicle = v AND b.status IN (com.example.demo.Entity.Booking$BookingStatus.PENDING, com.example.demo.Entity.Booking$BookingStatus.CONFIRMED, com.example.demo.Entity.Booking$BookingStatus.ACTIVE) AND (:startAt < b.endAt AND :endAt > b.startAt))")
+    Page<Vehicle> findAvailableVehicles(@Param("type") Vehicle.VehicleType type,
+                                        @Param("minPrice") BigDecimal minPrice,
+                                        @Param("maxPrice") BigDecimal maxPrice,
+                                        @Param("startAt") LocalDateTime startAt,
+                                        @Param("endAt") LocalDateTime endAt,
+                                        Pageable pageable);
+
+    /**
+     * Load tất cả khoảng thời gian đang giữ xe (dùng để dựng VehicleAvailabilityIndex)
+     */
+    @Query("SELECT b.id AS id, b.vehicle.id AS vehicleId, b.startAt AS startAt, b.endAt AS endAt FROM Booking b WHERE b.status IN (com.example.demo.Entity.Booking$BookingStatus.PENDING, com.example.demo.Entity.Booking$BookingStatus.CONFIRMED, com.example.demo.Entity.Booking$BookingStatus.ACTIVE)")
+    List<BookingInterval> findActiveIntervals();
+
+    /**
+     * Khoảng thời gian đang giữ xe của nhiều xe trong một cửa sổ, sort theo xe rồi start_at
+     */
+    @Query("SELECT b.id AS id, b.vehicle.id AS vehicleId, b.startAt AS startAt, b.endAt AS endAt FROM Booking b WHERE b.vehicle.id IN :vehicleIds AND b.status IN (com.example.demo.Entity.Booking$BookingStatus.PENDING, com.example.demo.Entity.Booking$BookingStatus.CONFIRMED, com.example.demo.Entity.Booking$BookingStatus.ACTIVE) AND (:startAt < b.endAt AND :endAt > b.startAt) ORDER BY b.vehicle.id, b.startAt")
+    List<BookingInterval> findActiveIntervalsForVehicles(@Param("vehicleIds") Collection<Long> vehicleIds,
+                                                         @Param("startAt") LocalDateTime startAt,
+                                                         @Param("endAt") LocalDateTime endAt);
+
     List<Booking> findByRenterIdOrderByCreatedAtDesc(Long renterId);
+
+    /**
+     * Keyset pagination theo (created_at, id) giảm dần: trang đầu và các trang sau cursor.
+     * Trả thẳng BookingResponse (join vehicle + renter) nên mỗi trang chỉ một câu SQL, không lazy-load.
+     */
+    @Query("SELECT new com.example.demo.DTO.BookingResponse(b.id, v.id, v.title, v.vehicleType, r.id, r.fullName, b.status, b.startAt, b.endAt, b.dailyPriceSnapshot, b.totalAmount, b.currency, b.notes, b.createdAt) FROM Booking b JOIN b.vehicle v JOIN b.renter r ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingResponse> findPage(Limit limit);
+
+    @Query("SELECT new com.example.demo.DTO.BookingResponse(b.id, v.id, v.title, v.vehicleType, r.id, r.fullName, b.status, b.startAt, b.endAt, b.dailyPriceSnapshot, b.totalAmount, b.currency, b.notes, b.createdAt) FROM Booking b JOIN b.vehicle v JOIN b.renter r WHERE b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id) ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingResponse> findPageAfter(@Param("createdAt") Timestamp createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT new com.example.demo.DTO.BookingResponse(b.id, v.id, v.title, v.vehicleType, r.id, r.fullName, b.status, b.startAt, b.endAt, b.dailyPriceSnapshot, b.totalAmount, b.currency, b.notes, b.createdAt) FROM Booking b JOIN b.vehicle v JOIN b.renter r WHERE r.id = :renterId ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingResponse> findPageByRenter(@Param("renterId") Long renterId, Limit limit);
+
+    @Query("SELECT new com.example.demo.DTO.BookingResponse(b.id, v.id, v.title, v.vehicleType, r.id, r.fullName, b.status, b.startAt, b.endAt, b.dailyPriceSnapshot, b.totalAmount, b.currency, b.notes, b.createdAt) FROM Booking b JOIN b.vehicle v JOIN b.renter r WHERE r.id = :renterId AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingResponse> findPageByRenterAfter(@Param("renterId") Long renterId, @Param("createdAt") Timestamp createdAt,
+                                                @Param("id") Long id, Limit limit);
     
     List<Booking> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Projection gọn cho khoảng thời gian của một booking
+     */
+    interface BookingInterval {
+        Long getId();
+        Long getVehicleId();
+        LocalDateTime getStartAt();
+        LocalDateTime getEndAt();
+    }
 }
 
 
@@ -0,0 +1,39 @@
+package com.example.demo.Repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Bảng data_versions (không có entity JPA): mỗi dòng là version của một loại dữ liệu dùng chung giữa các node
+ */
+@Repository
+public class DataVersionJdbcRepository {
+
+    public static final String RATE_PLANS = "rate_plans";
+
+    public static final String VEHICLE_CATALOG = "vehicle_catalog";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Tăng version trong transaction hiện tại: node khác chỉ thấy version mới khi thay đổi đã commit
+     */
+    public void bump(String name) {
+        jdbcTemplate.update("UPDATE data_versions SET version = version + 1 WHERE name = ?", name);
+    }
+
+    /**
+     * Tăng version và trả về giá trị mới của chính transaction này (dòng đang bị khóa tới khi commit)
+     */
+    public long bumpAndGet(String name) {
+        bump(name);
+        return current(name);
+    }
+
+    public long current(String name) {
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM data_versions WHERE name = ?", Long.class, name);
+        return version == null ? 0 : version;
+    }
+}
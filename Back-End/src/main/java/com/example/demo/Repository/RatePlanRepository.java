@@ -0,0 +1,13 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Entity.RatePlan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RatePlanRepository extends JpaRepository<RatePlan, Long> {
+
+    List<RatePlan> findByActiveTrue();
+}
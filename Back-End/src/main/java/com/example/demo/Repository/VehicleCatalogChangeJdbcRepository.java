@@ -0,0 +1,50 @@
+package com.example.demo.Repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bảng vehicle_catalog_changes (không có entity JPA): các xe đổi ở mỗi version của catalog
+ */
+@Repository
+public class VehicleCatalogChangeJdbcRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ghi trong cùng transaction tăng version: node khác thấy version mới và các dòng này cùng lúc
+     */
+    public void record(long version, Collection<Long> vehicleIds, boolean statusOnly) {
+        List<Long> ids = List.copyOf(vehicleIds);
+        jdbcTemplate.batchUpdate("INSERT INTO vehicle_catalog_changes (version, vehicle_id, status_only) VALUES (?, ?, ?)",
+                ids, ids.size(), (ps, id) -> {
+                    ps.setLong(1, version);
+                    ps.setLong(2, id);
+                    ps.setBoolean(3, statusOnly);
+                });
+    }
+
+    /**
+     * Các thay đổi có version trong (afterVersion, upToVersion]
+     */
+    public List<Change> findBetween(long afterVersion, long upToVersion) {
+        return jdbcTemplate.query("SELECT version, vehicle_id, status_only FROM vehicle_catalog_changes "
+                        + "WHERE version > ? AND version <= ? ORDER BY version",
+                (rs, rowNum) -> new Change(rs.getLong("version"), rs.getLong("vehicle_id"), rs.getBoolean("status_only")),
+                afterVersion, upToVersion);
+    }
+
+    public int purgeBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM vehicle_catalog_changes WHERE changed_at < ?", Timestamp.valueOf(cutoff));
+    }
+
+    public record Change(long version, long vehicleId, boolean statusOnly) {
+    }
+}
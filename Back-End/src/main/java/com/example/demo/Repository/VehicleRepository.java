@@ -1,12 +1,17 @@
 package com.example.demo.Repository;
 
 import com.example.demo.Entity.Vehicle;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +25,20 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpec
     @Query("SELECT v FROM Vehicle v WHERE v.id = :id")
     Optional<Vehicle> findByIdWithPhotos(Long id);
     
+    /**
+     * Khóa dòng vehicle (SELECT ... FOR UPDATE) để tuần tự hóa việc đặt xe giữa các node
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vehicle v WHERE v.id = :id")
+    Optional<Vehicle> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Khóa nhiều dòng vehicle trong một câu (theo thứ tự id để tránh deadlock)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vehicle v WHERE v.id IN :ids ORDER BY v.id")
+    List<Vehicle> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
     /**
      * Load tất cả vehicles với photos
      */
@@ -28,12 +47,48 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpec
     List<Vehicle> findAllWithPhotos();
     
     /**
-     * Load vehicles với photos theo specification (cho search)
+     * Load photos cho một nhóm vehicles (một trang kết quả) trong một query
      */
     @EntityGraph(attributePaths = {"photos"})
-    @Query("SELECT DISTINCT v FROM Vehicle v")
-    List<Vehicle> findAllWithPhotosForSearch();
-}
+    @Query("SELECT DISTINCT v FROM Vehicle v WHERE v.id IN :ids")
+    List<Vehicle> findAllWithPhotosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Trạng thái hiện tại của một nhóm xe (cập nhật VehicleCatalog sau khi booking đổi trạng thái xe)
+     */
+    @Query("SELECT v.id AS id, v.status AS status FROM Vehicle v WHERE v.id IN :ids")
+    List<VehicleStatusView> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface VehicleStatusView {
+        Long getId();
+        Vehicle.VehicleStatus getStatus();
+    }
 
+    /**
+     * Các field dùng để báo giá cùng version của xe (key memo báo giá), không load entity
+     */
+    @Query("SELECT v.id AS id, v.version AS version, v.vehicleType AS vehicleType, v.dailyPrice AS dailyPrice, "
+            + "v.currency AS currency FROM Vehicle v WHERE v.id = :id")
+    Optional<VehiclePriceView> findPriceById(@Param("id") Long id);
 
+    interface VehiclePriceView {
+        Long getId();
+        long getVersion();
+        Vehicle.VehicleType getVehicleType();
+        BigDecimal getDailyPrice();
+        String getCurrency();
+    }
 
+    /**
+     * Các field được đánh chỉ mục full-text (nạp VehicleTextIndex, không load entity)
+     */
+    @Query("SELECT v.id AS id, v.title AS title, v.description AS description, v.licensePlate AS licensePlate FROM Vehicle v")
+    List<VehicleTextView> findAllTexts();
+
+    interface VehicleTextView {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        String getLicensePlate();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Entity.Vehicle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bảng vehicle_daily_rollups (không có entity JPA): cộng dồn bằng INSERT ... ON DUPLICATE KEY UPDATE,
+ * đọc báo cáo theo khoảng ngày
+ */
+@Repository
+public class VehicleRollupJdbcRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO vehicle_daily_rollups (vehicle_id, rollup_day, booked_minutes, revenue_minor, booking_count) "
+                    + "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+                    + "booked_minutes = booked_minutes + VALUES(booked_minutes), "
+                    + "revenue_minor = revenue_minor + VALUES(revenue_minor), "
+                    + "booking_count = booking_count + VALUES(booking_count)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Cộng (hoặc trừ, với giá trị âm) các dòng delta trong một batch
+     */
+    public void addAll(List<DayDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, d) -> {
+            ps.setLong(1, d.vehicleId());
+            ps.setDate(2, Date.valueOf(d.day()));
+            ps.setLong(3, d.bookedMinutes());
+            ps.setLong(4, d.revenueMinor());
+            ps.setInt(5, d.bookingCount());
+        });
+    }
+
+    public int deleteRange(LocalDate from, LocalDate to) {
+        return jdbcTemplate.update("DELETE FROM vehicle_daily_rollups WHERE rollup_day BETWEEN ? AND ?",
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Duyệt (không giữ cả danh sách) các booking được tính doanh thu chạm vào [from, to)
+     */
+    public void forEachCountedBooking(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT vehicle_id, start_at, end_at, total_amount, currency FROM bookings "
+                        + "WHERE status IN ('CONFIRMED', 'ACTIVE', 'COMPLETED') AND start_at < ? AND end_at > ?",
+                handler, Timestamp.valueOf(to), Timestamp.valueOf(from));
+    }
+
+    public List<UtilizationRow> findByVehicle(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("SELECT r.rollup_day, r.vehicle_id, v.vehicle_type, r.booked_minutes, r.revenue_minor, r.booking_count "
+                        + "FROM vehicle_daily_rollups r JOIN vehicles v ON v.id = r.vehicle_id "
+                        + "WHERE r.rollup_day BETWEEN ? AND ? ORDER BY r.rollup_day, r.vehicle_id",
+                (rs, rowNum) -> new UtilizationRow(rs.getDate("rollup_day").toLocalDate(), rs.getLong("vehicle_id"),
+                        Vehicle.VehicleType.valueOf(rs.getString("vehicle_type")), rs.getLong("booked_minutes"),
+                        rs.getLong("revenue_minor"), rs.getInt("booking_count")),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public List<UtilizationRow> findByVehicleType(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("SELECT r.rollup_day, v.vehicle_type, SUM(r.booked_minutes) AS booked_minutes, "
+                        + "SUM(r.revenue_minor) AS revenue_minor, SUM(r.booking_count) AS booking_count "
+                        + "FROM vehicle_daily_rollups r JOIN vehicles v ON v.id = r.vehicle_id "
+                        + "WHERE r.rollup_day BETWEEN ? AND ? GROUP BY r.rollup_day, v.vehicle_type "
+                        + "ORDER BY r.rollup_day, v.vehicle_type",
+                (rs, rowNum) -> new UtilizationRow(rs.getDate("rollup_day").toLocalDate(), null,
+                        Vehicle.VehicleType.valueOf(rs.getString("vehicle_type")), rs.getLong("booked_minutes"),
+                        rs.getLong("revenue_minor"), rs.getInt("booking_count")),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Số xe theo loại (mẫu số của tỷ lệ lấp đầy theo loại)
+     */
+    public Map<Vehicle.VehicleType, Integer> countVehiclesByType() {
+        Map<Vehicle.VehicleType, Integer> counts = new EnumMap<>(Vehicle.VehicleType.class);
+        jdbcTemplate.query("SELECT vehicle_type, COUNT(*) AS n FROM vehicles GROUP BY vehicle_type",
+                (RowCallbackHandler) rs -> counts.put(Vehicle.VehicleType.valueOf(rs.getString("vehicle_type")), rs.getInt("n")));
+        return counts;
+    }
+
+    public record DayDelta(long vehicleId, LocalDate day, long bookedMinutes, long revenueMinor, int bookingCount) {
+    }
+
+    public record UtilizationRow(LocalDate day, Long vehicleId, Vehicle.VehicleType vehicleType, long bookedMinutes,
+                                 long revenueMinor, int bookingCount) {
+    }
+}
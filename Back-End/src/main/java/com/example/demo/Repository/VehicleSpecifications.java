@@ -0,0 +1,97 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Entity.Vehicle;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Điều kiện tìm xe ghép được với nhau; tham số null nghĩa là không lọc theo tiêu chí đó
+ */
+public final class VehicleSpecifications {
+
+    private VehicleSpecifications() {
+    }
+
+    /**
+     * Ghép tất cả tiêu chí search (AND), bỏ qua tiêu chí null
+     */
+    public static Specification<Vehicle> search(Vehicle.VehicleType type, BigDecimal minPrice, BigDecimal maxPrice,
+                                                Vehicle.VehicleStatus status, String text) {
+        List<Specification<Vehicle>> specs = new ArrayList<>();
+        if (type != null) {
+            specs.add(hasType(type));
+        }
+        if (minPrice != null) {
+            specs.add(priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            specs.add(priceAtMost(maxPrice));
+        }
+        if (status != null) {
+            specs.add(hasStatus(status));
+        }
+        if (text != null && !text.isBlank()) {
+            specs.add(textContains(text));
+        }
+        return Specification.allOf(specs);
+    }
+
+    public static Specification<Vehicle> hasType(Vehicle.VehicleType type) {
+        return (root, query, cb) -> cb.equal(root.get("vehicleType"), type);
+    }
+
+    public static Specification<Vehicle> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dailyPrice"), minPrice);
+    }
+
+    public static Specification<Vehicle> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("dailyPrice"), maxPrice);
+    }
+
+    public static Specification<Vehicle> hasStatus(Vehicle.VehicleStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Tên xe hoặc biển số chứa text (không phân biệt hoa thường)
+     */
+    public static Specification<Vehicle> textContains(String text) {
+        String pattern = "%" + escapeLike(text.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("title")), pattern, '\\'),
+                cb.like(cb.lower(root.get("licensePlate")), pattern, '\\'));
+    }
+
+    /**
+     * Keyset: các xe đứng sau (value, id) theo ORDER BY property, id (cùng chiều).
+     * value null chỉ gặp với created_at null, nhóm này đứng đầu theo thứ tự tăng dần như MySQL
+     */
+    public static <T extends Comparable<? super T>> Specification<Vehicle> after(String property, T value, long id,
+                                                                               boolean descending) {
+        return (root, query, cb) -> {
+            Path<Long> idPath = root.get("id");
+            Predicate idBeyond = descending ? cb.lessThan(idPath, id) : cb.greaterThan(idPath, id);
+            if (property.equals("id")) {
+                return idBeyond;
+            }
+            Path<T> path = root.get(property);
+            if (value == null) {
+                Predicate inNullGroup = cb.and(cb.isNull(path), idBeyond);
+                return descending ? inNullGroup : cb.or(cb.isNotNull(path), inNullGroup);
+            }
+            Predicate beyond = descending ? cb.lessThan(path, value) : cb.greaterThan(path, value);
+            Predicate tie = cb.and(cb.equal(path, value), idBeyond);
+            return descending ? cb.or(beyond, tie, cb.isNull(path)) : cb.or(beyond, tie);
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Entity.WaitlistEntry;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    /**
+     * Entry đang chờ của xe có khoảng giao [startAt, endAt) và chưa tới giờ bắt đầu, theo thứ tự đăng ký.
+     * Đọc trực tiếp từ database (range start_at trong (now, endAt) trên idx_waitlist_vehicle_status_start)
+     * nên thấy cả entry do node khác ghi, và entry đã quá hạn không làm dài khoảng quét
+     */
+    @EntityGraph(attributePaths = {"vehicle", "user"})
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.vehicle.id = :vehicleId "
+            + "AND w.status = com.example.demo.Entity.WaitlistEntry$Status.WAITING "
+            + "AND w.startAt > :now AND w.startAt < :endAt AND w.endAt > :startAt ORDER BY w.id")
+    List<WaitlistEntry> findWaitingOverlapping(@Param("vehicleId") Long vehicleId,
+                                               @Param("startAt") LocalDateTime startAt,
+                                               @Param("endAt") LocalDateTime endAt,
+                                               @Param("now") LocalDateTime now);
+
+    @EntityGraph(attributePaths = {"vehicle"})
+    List<WaitlistEntry> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    /**
+     * Entry đang chờ của user chưa tới giờ bắt đầu (entry quá hạn chưa được dọn không tính vào giới hạn)
+     */
+    long countByUserIdAndStatusAndStartAtAfter(Long userId, WaitlistEntry.Status status, LocalDateTime now);
+
+    /**
+     * Chuyển các entry WAITING đã tới giờ bắt đầu sang EXPIRED (idx_waitlist_status_start)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = com.example.demo.Entity.WaitlistEntry$Status.EXPIRED "
+            + "WHERE w.status = com.example.demo.Entity.WaitlistEntry$Status.WAITING AND w.startAt <= :now")
+    int expireStartedWaiting(@Param("now") LocalDateTime now);
+
+    Optional<WaitlistEntry> findByHoldIdAndStatus(String holdId, WaitlistEntry.Status status);
+}
@@ -0,0 +1,132 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.AvailabilityCalendarResponse;
+import com.example.demo.Repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lịch ngày bận của từng xe dạng bitmap: bit i (word i / 64, little-endian) = ngày from + i có booking giữ xe.
+ * Dựng từ VehicleAvailabilityIndex (khoảng đã sort theo start) và cache theo snapshot của xe,
+ * nên cache tự hết hiệu lực khi booking của xe đó thay đổi.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AvailabilityCalendarService {
+
+    public static final int MAX_DAYS = 366;
+    public static final int MAX_VEHICLES = 200;
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    @Autowired
+    private VehicleAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final ConcurrentHashMap<Long, CachedCalendar> cache = new ConcurrentHashMap<>();
+
+    public AvailabilityCalendarResponse getCalendar(Collection<Long> vehicleIds, LocalDate from, int days) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new RuntimeException("Số ngày phải từ 1 đến " + MAX_DAYS);
+        }
+        if (vehicleIds.isEmpty() || vehicleIds.size() > MAX_VEHICLES) {
+            throw new RuntimeException("Số xe phải từ 1 đến " + MAX_VEHICLES);
+        }
+        long fromDay = from.toEpochDay();
+
+        Map<Long, String> encoded = new LinkedHashMap<>();
+        if (availabilityIndex.isLoaded()) {
+            for (Long vehicleId : vehicleIds) {
+                encoded.put(vehicleId, fromIndex(vehicleId, fromDay, days));
+            }
+        } else {
+            encoded.putAll(fromDatabase(vehicleIds, from, days));
+        }
+
+        List<AvailabilityCalendarResponse.VehicleCalendar> vehicles = new ArrayList<>(encoded.size());
+        encoded.forEach((vehicleId, occupied) ->
+                vehicles.add(new AvailabilityCalendarResponse.VehicleCalendar(vehicleId, occupied)));
+        return new AvailabilityCalendarResponse(from, days, vehicles);
+    }
+
+    private String fromIndex(Long vehicleId, long fromDay, int days) {
+        VehicleAvailabilityIndex.VehicleIntervals snapshot = availabilityIndex.snapshot(vehicleId);
+        CachedCalendar cached = cache.get(vehicleId);
+        if (cached != null && cached.snapshot() == snapshot && cached.fromDay() == fromDay && cached.days() == days) {
+            return cached.encoded();
+        }
+
+        long[] words = new long[(days + 63) / 64];
+        if (snapshot != null) {
+            for (int i = 0; i < snapshot.starts.length; i++) {
+                markDays(words, fromDay, days, snapshot.starts[i], snapshot.ends[i]);
+            }
+        }
+        String result = encode(words);
+        cache.put(vehicleId, new CachedCalendar(snapshot, fromDay, days, result));
+        return result;
+    }
+
+    /**
+     * Fallback khi index chưa sẵn sàng: một query đã sort theo (vehicle, start_at), duyệt một lượt
+     */
+    private Map<Long, String> fromDatabase(Collection<Long> vehicleIds, LocalDate from, int days) {
+        long fromDay = from.toEpochDay();
+        Map<Long, long[]> bitmaps = new LinkedHashMap<>();
+        for (Long vehicleId : vehicleIds) {
+            bitmaps.put(vehicleId, new long[(days + 63) / 64]);
+        }
+
+        LocalDateTime windowStart = from.atStartOfDay();
+        LocalDateTime windowEnd = from.plusDays(days).atStartOfDay();
+        for (BookingRepository.BookingInterval interval :
+                bookingRepository.findActiveIntervalsForVehicles(vehicleIds, windowStart, windowEnd)) {
+            markDays(bitmaps.get(interval.getVehicleId()), fromDay, days,
+                    VehicleAvailabilityIndex.toKey(interval.getStartAt()),
+                    VehicleAvailabilityIndex.toKey(interval.getEndAt()));
+        }
+
+        Map<Long, String> result = new LinkedHashMap<>();
+        bitmaps.forEach((vehicleId, words) -> result.put(vehicleId, encode(words)));
+        return result;
+    }
+
+    /**
+     * Đánh dấu các ngày mà [start, end) (epoch second) chạm vào trong cửa sổ [fromDay, fromDay + days)
+     */
+    private static void markDays(long[] words, long fromDay, int days, long start, long end) {
+        long first = Math.max(Math.floorDiv(start, SECONDS_PER_DAY), fromDay);
+        long last = Math.min(Math.floorDiv(end - 1, SECONDS_PER_DAY), fromDay + days - 1);
+        for (long day = first; day <= last; day++) {
+            int bit = (int) (day - fromDay);
+            words[bit >>> 6] |= 1L << (bit & 63);
+        }
+    }
+
+    private static String encode(long[] words) {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    private record CachedCalendar(VehicleAvailabilityIndex.VehicleIntervals snapshot, long fromDay, int days,
+                                  String encoded) {
+    }
+}
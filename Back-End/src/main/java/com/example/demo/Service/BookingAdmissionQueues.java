@@ -0,0 +1,228 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.Booking;
+import com.example.demo.Entity.User;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.BookingRepository;
+import com.example.demo.Repository.UserRepository;
+import com.example.demo.Repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Engine nhận booking kiểu actor (booking.admission.mode=actor): mỗi xe có một hàng đợi tuần tự,
+ * một virtual thread worker chỉ chạy khi hàng đợi của xe có việc.
+ * Worker là nơi duy nhất tạo booking cho xe đó nên quyết định conflict hoàn toàn in-memory
+ * (VehicleAvailabilityIndex + các booking vừa nhận trong cùng lượt), rồi lưu cả lượt trong một transaction.
+ * Index chỉ thấy ghi của node hiện tại nên chế độ này dành cho triển khai một node.
+ * Luồng gửi lệnh không được giữ transaction/connection trong lúc chờ: worker cần connection riêng,
+ * nên xe và renter do worker tự đọc trong transaction của lượt.
+ */
+@Component
+public class BookingAdmissionQueues {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VehicleAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private VehicleBookingLocks vehicleLocks;
+
+    @Autowired
+    private BookingHoldService holdService;
+
+    @Autowired
+    private BookingOutbox outbox;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${booking.admission.batch-size:64}")
+    private int batchSize;
+
+    @Value("${booking.admission.timeout-ms:10000}")
+    private long timeoutMillis;
+
+    private final ConcurrentHashMap<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Gửi yêu cầu đặt xe vào hàng đợi của xe và chờ worker quyết định.
+     * draft dựng booking (chưa lưu) từ xe và renter mà worker đọc trong transaction của nó
+     */
+    public Booking submit(Long vehicleId, String username, BiFunction<Vehicle, User, Booking> draft) {
+        Command command = new Command(username, draft);
+        Mailbox mailbox = mailboxes.computeIfAbsent(vehicleId, id -> new Mailbox());
+        mailbox.queue.add(command);
+        if (mailbox.running.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("booking-actor-" + vehicleId).start(() -> drain(vehicleId, mailbox));
+        }
+
+        try {
+            return command.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw abandon(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw abandon(command);
+        }
+    }
+
+    /**
+     * Caller thôi chờ: lệnh worker chưa nhận thì hủy hẳn (không bao giờ được lưu),
+     * lệnh đã nhận thì booking có thể đã commit nên không được báo là thất bại
+     */
+    private RuntimeException abandon(Command command) {
+        if (command.expire()) {
+            return new RuntimeException("Hệ thống đang bận, vui lòng thử lại");
+        }
+        return new RuntimeException("Chưa xác định được kết quả đặt xe, vui lòng kiểm tra danh sách booking trước khi đặt lại");
+    }
+
+    private void drain(Long vehicleId, Mailbox mailbox) {
+        while (true) {
+            List<Command> batch = new ArrayList<>();
+            Command next;
+            while (batch.size() < batchSize && (next = mailbox.queue.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                mailbox.running.set(false);
+                // Có lệnh mới đến sau lần poll cuối -> giành lại quyền chạy
+                if (mailbox.queue.isEmpty() || !mailbox.running.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            process(vehicleId, batch);
+        }
+    }
+
+    private void process(Long vehicleId, List<Command> batch) {
+        // Nhận lệnh trước khi ghi: lệnh caller đã bỏ (expire) không lọt vào lượt lưu
+        List<Command> claimed = batch.stream().filter(Command::claim).toList();
+        if (claimed.isEmpty()) {
+            return;
+        }
+        List<Command> accepted = new ArrayList<>();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                // Stripe lock (in-memory) để không chen với các luồng khác ghi cho cùng xe (giỏ đặt nhiều xe)
+                vehicleLocks.lockUntilCompletion(vehicleId);
+                Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                        .orElseThrow(() -> new RuntimeException("Vehicle không tồn tại!"));
+
+                Map<String, User> renters = new HashMap<>();
+                for (Command command : claimed) {
+                    User renter = renters.computeIfAbsent(command.username,
+                            username -> userRepository.findByUsername(username).orElse(null));
+                    if (renter == null) {
+                        command.result.completeExceptionally(new RuntimeException("User không tồn tại!"));
+                        continue;
+                    }
+                    Booking draft;
+                    try {
+                        draft = command.draft.apply(vehicle, renter);
+                    } catch (RuntimeException e) {
+                        command.result.completeExceptionally(e);
+                        continue;
+                    }
+                    if (!isFree(vehicle, draft, accepted)) {
+                        command.result.completeExceptionally(
+                                new RuntimeException("Xe đã được đặt trong khoảng thời gian này"));
+                        continue;
+                    }
+                    command.booking = draft;
+                    accepted.add(command);
+                }
+
+                List<Booking> saved = bookingRepository.saveAll(accepted.stream().map(c -> c.booking).toList());
+                for (Booking booking : saved) {
+                    availabilityIndex.onBookingChanged(booking);
+                    outbox.record(booking, null);
+                    holdService.consumeHolds(vehicleId, booking.getStartAt(), booking.getEndAt(), booking.getRenter().getId());
+                }
+            });
+        } catch (RuntimeException e) {
+            // Cả lượt rollback: mọi lệnh đã nhận mà chưa có kết quả đều báo lỗi
+            claimed.forEach(c -> c.result.completeExceptionally(e));
+            return;
+        }
+        accepted.forEach(c -> c.result.complete(c.booking));
+    }
+
+    private boolean isFree(Vehicle vehicle, Booking draft, List<Command> acceptedInBatch) {
+        for (Command other : acceptedInBatch) {
+            if (draft.getStartAt().isBefore(other.booking.getEndAt()) && draft.getEndAt().isAfter(other.booking.getStartAt())) {
+                return false;
+            }
+        }
+        // Không dùng ensureNotHeldByOthers: exception qua proxy của BookingHoldService làm rollback cả lượt
+        if (holdService.isHeldByOthers(vehicle.getId(), draft.getStartAt(), draft.getEndAt(), draft.getRenter().getId())) {
+            return false;
+        }
+        if (!availabilityIndex.isLoaded()) {
+            return bookingRepository.findOverlaps(vehicle, draft.getStartAt(), draft.getEndAt()).isEmpty();
+        }
+        return availabilityIndex.isAvailable(vehicle.getId(), draft.getStartAt(), draft.getEndAt());
+    }
+
+    private static final class Mailbox {
+        final ConcurrentLinkedQueue<Command> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean running = new AtomicBoolean(false);
+    }
+
+    private static final class Command {
+        private static final int PENDING = 0;
+        private static final int CLAIMED = 1;
+        private static final int EXPIRED = 2;
+
+        final String username;
+        final BiFunction<Vehicle, User, Booking> draft;
+        final CompletableFuture<Booking> result = new CompletableFuture<>();
+        final AtomicInteger state = new AtomicInteger(PENDING);
+        Booking booking;
+
+        Command(String username, BiFunction<Vehicle, User, Booking> draft) {
+            this.username = username;
+            this.draft = draft;
+        }
+
+        boolean claim() {
+            return state.compareAndSet(PENDING, CLAIMED);
+        }
+
+        boolean expire() {
+            return state.compareAndSet(PENDING, EXPIRED);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.Service;
+
+import com.example.demo.Repository.BookingOutboxJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sink mẫu: ghi log từng event (bật bằng booking.outbox.log-sink.enabled=true)
+ */
+@Component
+@ConditionalOnProperty(name = "booking.outbox.log-sink.enabled", havingValue = "true")
+public class BookingEventLogSink implements BookingEventSink {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingEventLogSink.class);
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void handle(List<BookingOutboxJdbcRepository.OutboxEvent> events) {
+        for (BookingOutboxJdbcRepository.OutboxEvent event : events) {
+            log.info("Booking {} xe {}: {} -> {}", event.bookingId(), event.vehicleId(), event.from(), event.to());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.Service;
+
+import com.example.demo.Repository.BookingOutboxJdbcRepository;
+
+import java.util.List;
+
+/**
+ * Nơi nhận event booking từ outbox (thông báo, báo cáo, dashboard...). Mỗi bean là một sink có offset riêng.
+ * Giao nhận at-least-once: sau lỗi hoặc restart, batch chưa lưu offset sẽ được giao lại, nên handle phải idempotent
+ * (ví dụ bỏ qua event có id đã thấy).
+ */
+public interface BookingEventSink {
+
+    /**
+     * Tên cố định, dùng làm khóa offset
+     */
+    String name();
+
+    /**
+     * Xử lý một batch theo thứ tự id tăng dần. Event commit muộn được giao bù ở batch sau nên có thể có id
+     * nhỏ hơn event đã giao. Ném exception để batch được giao lại; một event lỗi quá max-attempts lần vào dead letter
+     */
+    void handle(List<BookingOutboxJdbcRepository.OutboxEvent> events);
+}
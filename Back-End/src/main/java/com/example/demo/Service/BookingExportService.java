@@ -0,0 +1,190 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.Booking;
+import com.example.demo.Repository.BookingJdbcRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Xuất booking cho kế toán theo từng dòng: đọc bằng con trỏ JDBC và ghi thẳng ra response,
+ * không dựng entity hay danh sách nào nên bộ nhớ cố định bất kể số dòng.
+ * Không mở transaction: con trỏ giữ connection riêng cho tới khi đọc hết, nên số export chạy đồng thời bị giới hạn
+ * (max-concurrent) để các request khác vẫn còn connection trong pool.
+ */
+@Service
+public class BookingExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String[] COLUMNS = {
+            "id", "vehicle_id", "vehicle_title", "renter_id", "renter_name", "status", "start_at", "end_at",
+            "daily_price_snapshot", "total_amount", "currency", "created_at"
+    };
+
+    // Đẩy buffer ra client định kỳ để tải về bắt đầu ngay, không đợi hết dữ liệu
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Cột là chữ do người dùng nhập: có thể bị bảng tính hiểu thành công thức
+    private static final Set<String> FREE_TEXT_COLUMNS = Set.of("vehicle_title", "renter_name");
+
+    @Autowired
+    private BookingJdbcRepository bookingJdbcRepository;
+
+    private final Semaphore exportSlots;
+
+    public BookingExportService(@Value("${booking.export.max-concurrent:2}") int maxConcurrentExports) {
+        this.exportSlots = new Semaphore(maxConcurrentExports);
+    }
+
+    /**
+     * Giữ một lượt export trước khi response bắt đầu; false khi đã đủ số export đồng thời.
+     * Lượt được trả lại khi export() kết thúc
+     */
+    public boolean tryAcquireSlot() {
+        return exportSlots.tryAcquire();
+    }
+
+    /**
+     * Kiểm tra tham số trước khi response bắt đầu (lỗi sau đó không còn đổi được status code)
+     */
+    public void validate(String format, LocalDate from, LocalDate to) {
+        if (!FORMAT_CSV.equalsIgnoreCase(format) && !FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            throw new RuntimeException("format chỉ nhận csv hoặc ndjson");
+        }
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("Khoảng ngày không hợp lệ: from phải trước to");
+        }
+    }
+
+    /**
+     * Ghi các booking ở trạng thái status có endAt trong [from, to) ra out, rồi trả lượt đã giữ bằng tryAcquireSlot
+     */
+    public void export(Booking.BookingStatus status, LocalDate from, LocalDate to, String format, OutputStream out)
+            throws IOException {
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            RowWriter rows = FORMAT_NDJSON.equalsIgnoreCase(format) ? ndjson(writer) : csv(writer);
+            int[] count = {0};
+            try {
+                bookingJdbcRepository.streamForExport(status, from.atStartOfDay(), to.atStartOfDay(), rs -> {
+                    try {
+                        rows.write(rs);
+                        if (++count[0] % FLUSH_EVERY_ROWS == 0) {
+                            writer.flush();
+                        }
+                    } catch (IOException e) {
+                        // Client ngắt kết nối: dừng đọc con trỏ (repository hủy câu lệnh đang stream)
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        } finally {
+            exportSlots.release();
+        }
+    }
+
+    private static RowWriter csv(Writer writer) throws IOException {
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        return rs -> {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                String value = text(rs, COLUMNS[i]);
+                writeCsvField(writer, FREE_TEXT_COLUMNS.contains(COLUMNS[i]) ? neutralizeFormula(value) : value);
+            }
+            writer.write("\r\n");
+        };
+    }
+
+    private static RowWriter ndjson(Writer writer) throws IOException {
+        JsonGenerator json = JSON_FACTORY.createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return rs -> {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong("id"));
+            json.writeNumberField("vehicleId", rs.getLong("vehicle_id"));
+            json.writeStringField("vehicleTitle", rs.getString("vehicle_title"));
+            json.writeNumberField("renterId", rs.getLong("renter_id"));
+            json.writeStringField("renterName", rs.getString("renter_name"));
+            json.writeStringField("status", rs.getString("status"));
+            json.writeStringField("startAt", text(rs, "start_at"));
+            json.writeStringField("endAt", text(rs, "end_at"));
+            json.writeNumberField("dailyPriceSnapshot", rs.getBigDecimal("daily_price_snapshot"));
+            json.writeNumberField("totalAmount", rs.getBigDecimal("total_amount"));
+            json.writeStringField("currency", rs.getString("currency"));
+            json.writeStringField("createdAt", text(rs, "created_at"));
+            json.writeEndObject();
+            json.flush();
+            writer.write('\n');
+        };
+    }
+
+    private static String text(ResultSet rs, String column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp ts) {
+            return ts.toLocalDateTime().toString();
+        }
+        if (value instanceof BigDecimal amount) {
+            return amount.toPlainString();
+        }
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Giá trị bắt đầu bằng = + - @ (hoặc tab, CR) bị Excel/Sheets chạy như công thức: thêm ' để giữ nguyên là chữ
+     */
+    static String neutralizeFormula(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r'
+                ? "'" + value : value;
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
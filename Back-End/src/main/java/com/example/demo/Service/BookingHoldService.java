@@ -0,0 +1,263 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.User;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.BookingHoldJdbcRepository;
+import com.example.demo.Repository.BookingRepository;
+import com.example.demo.Repository.VehicleRepository;
+import com.example.demo.Util.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Giữ chỗ tạm (HOLD) một xe trong vài phút khi khách đang checkout.
+ * Hold lưu trong booking_holds nên mọi node đều thấy: đặt hold và createBooking cùng kiểm tra trong đoạn
+ * khóa dòng vehicle (FOR UPDATE). Hashed timing wheel chỉ báo hết hạn đúng lúc cho các hold đặt trên node này
+ * (O(1) mỗi hold, không poll database); hold của node đã dừng được dọn định kỳ.
+ * Hold hết hạn hoặc bị hủy (không thành booking) phát HoldEnded để danh sách chờ mời lại khoảng đó.
+ */
+@Service
+@Transactional
+public class BookingHoldService {
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private BookingHoldJdbcRepository holdRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private VehicleBookingLocks vehicleLocks;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${booking.hold.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${booking.hold.max-per-user:5}")
+    private int maxHoldsPerUser;
+
+    private HashedTimingWheel<Hold> expiryWheel;
+
+    @PostConstruct
+    void startWheel() {
+        // tick 1 giây, 512 ô: hold dài hơn một vòng (~8.5 phút) chỉ tốn thêm số vòng đếm ngược
+        expiryWheel = new HashedTimingWheel<>("booking-hold-expiry", 1000, 512, this::expired);
+    }
+
+    @PreDestroy
+    void stopWheel() {
+        expiryWheel.stop();
+    }
+
+    /**
+     * Giữ chỗ xe cho user hiện tại trong ttlSeconds
+     */
+    public Hold placeHold(Long vehicleId, LocalDateTime startAt, LocalDateTime endAt) {
+        if (!startAt.isBefore(endAt)) {
+            throw new RuntimeException("Thời gian không hợp lệ: startAt phải trước endAt");
+        }
+        User current = userService.getCurrentUser();
+        return place(current.getId(), vehicleId, startAt, endAt, maxHoldsPerUser);
+    }
+
+    /**
+     * Giữ chỗ xe thay cho userId, không tính giới hạn số hold của user
+     * (hệ thống mời khách trong danh sách chờ vào khoảng vừa trống)
+     */
+    public Hold placeHoldFor(Long userId, Long vehicleId, LocalDateTime startAt, LocalDateTime endAt) {
+        return place(userId, vehicleId, startAt, endAt, Integer.MAX_VALUE);
+    }
+
+    private Hold place(Long userId, Long vehicleId, LocalDateTime startAt, LocalDateTime endAt, int maxHolds) {
+        // Cùng cơ chế tuần tự hóa với createBooking
+        vehicleLocks.lockUntilCompletion(vehicleId);
+        Vehicle vehicle = vehicleRepository.findByIdForUpdate(vehicleId)
+                .orElseThrow(() -> new RuntimeException("Vehicle không tồn tại!"));
+        if (!bookingRepository.findOverlaps(vehicle, startAt, endAt).isEmpty()) {
+            throw new RuntimeException("Xe đã được đặt trong khoảng thời gian này");
+        }
+        ensureNotHeldByOthers(vehicleId, startAt, endAt, userId);
+        // Khóa dòng đếm sau dòng vehicle: cùng thứ tự với createBooking khi trả lượt giữ chỗ
+        if (!holdRepository.reserveSlot(userId, maxHolds)) {
+            throw new RuntimeException("Bạn đang giữ quá nhiều xe, vui lòng hoàn tất hoặc hủy bớt");
+        }
+
+        Hold hold = new Hold(UUID.randomUUID().toString(), vehicleId, userId, startAt, endAt,
+                LocalDateTime.now().plusSeconds(ttlSeconds));
+        holdRepository.insert(hold.toStored());
+        // Hold rollback cùng transaction thì không có gì để báo hết hạn
+        afterCommit(() -> expiryWheel.schedule(hold, ttlSeconds * 1000));
+        return hold;
+    }
+
+    /**
+     * Hủy hold của user hiện tại
+     */
+    public void releaseHold(String holdId) {
+        Hold hold = holdRepository.findActive(holdId, LocalDateTime.now()).map(Hold::of)
+                .orElseThrow(() -> new RuntimeException("Hold không tồn tại hoặc đã hết hạn"));
+        User current = userService.getCurrentUser();
+        if (!hold.userId.equals(current.getId()) && current.getRole() != User.Role.ADMIN) {
+            throw new RuntimeException("Bạn không có quyền hủy hold này");
+        }
+        if (holdRepository.delete(hold.id) == 1) {
+            holdRepository.releaseSlots(hold.userId, 1);
+            afterCommit(() -> ended(hold));
+        }
+    }
+
+    /**
+     * Từ chối nếu [startAt, endAt) đang bị user khác giữ chỗ
+     */
+    public void ensureNotHeldByOthers(Long vehicleId, LocalDateTime startAt, LocalDateTime endAt, Long userId) {
+        if (isHeldByOthers(vehicleId, startAt, endAt, userId)) {
+            throw new RuntimeException("Xe đang được giữ chỗ bởi khách khác, vui lòng thử lại sau");
+        }
+    }
+
+    public boolean isHeldByOthers(Long vehicleId, LocalDateTime startAt, LocalDateTime endAt, Long userId) {
+        return holdRepository.existsHeldByOthers(vehicleId, startAt, endAt, userId, LocalDateTime.now());
+    }
+
+    /**
+     * Trong transaction tạo booking của user: các hold của chính user trên khoảng đó được giải phóng cùng lúc commit
+     */
+    public void consumeHolds(Long vehicleId, LocalDateTime startAt, LocalDateTime endAt, Long userId) {
+        List<BookingHoldJdbcRepository.StoredHold> consumed =
+                holdRepository.lockOverlappingForUser(vehicleId, startAt, endAt, userId);
+        if (!consumed.isEmpty()) {
+            holdRepository.deleteAll(consumed.stream().map(BookingHoldJdbcRepository.StoredHold::id).toList());
+            holdRepository.releaseSlots(userId, consumed.size());
+        }
+    }
+
+    /**
+     * Dọn hold quá hạn mà timing wheel của node đặt không báo (node đó đã dừng hoặc khởi động lại)
+     */
+    @Scheduled(fixedDelayString = "${booking.hold.sweep-ms:30000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void sweepExpired() {
+        // HoldEnded chỉ phát sau khi transaction dọn đã commit
+        List<Hold> swept = new TransactionTemplate(transactionManager).execute(status -> {
+            List<BookingHoldJdbcRepository.StoredHold> expired =
+                    holdRepository.lockExpired(LocalDateTime.now(), SWEEP_BATCH_SIZE);
+            if (expired.isEmpty()) {
+                return List.<Hold>of();
+            }
+            holdRepository.deleteAll(expired.stream().map(BookingHoldJdbcRepository.StoredHold::id).toList());
+            expired.stream()
+                    .collect(Collectors.groupingBy(BookingHoldJdbcRepository.StoredHold::userId, Collectors.counting()))
+                    .forEach((userId, count) -> holdRepository.releaseSlots(userId, count.intValue()));
+            return expired.stream().map(Hold::of).toList();
+        });
+        swept.forEach(this::ended);
+    }
+
+    /**
+     * Chạy trên thread của timing wheel: xóa hold trên virtual thread riêng để không chặn bánh xe.
+     * Hold đã thành booking hoặc bị hủy thì không còn dòng để xóa, không phát HoldEnded
+     */
+    private void expired(Hold hold) {
+        Thread.ofVirtual().name("booking-hold-expiry").start(() -> {
+            Boolean removed = new TransactionTemplate(transactionManager).execute(status -> {
+                if (holdRepository.delete(hold.id) != 1) {
+                    return false;
+                }
+                holdRepository.releaseSlots(hold.userId, 1);
+                return true;
+            });
+            if (Boolean.TRUE.equals(removed)) {
+                events.publishEvent(new HoldEnded(hold));
+            }
+        });
+    }
+
+    /**
+     * Listener đọc/ghi database: chạy trên virtual thread riêng, không chặn thread của timing wheel hay request
+     */
+    private void ended(Hold hold) {
+        Thread.ofVirtual().name("booking-hold-ended").start(() -> events.publishEvent(new HoldEnded(hold)));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Hold đã hết hạn hoặc bị hủy mà không thành booking
+     */
+    public record HoldEnded(Hold hold) {
+    }
+
+    public static class Hold {
+
+        private final String id;
+        private final Long vehicleId;
+        private final Long userId;
+        private final LocalDateTime startAt;
+        private final LocalDateTime endAt;
+        private final LocalDateTime expiresAt;
+
+        Hold(String id, Long vehicleId, Long userId, LocalDateTime startAt, LocalDateTime endAt, LocalDateTime expiresAt) {
+            this.id = id;
+            this.vehicleId = vehicleId;
+            this.userId = userId;
+            this.startAt = startAt;
+            this.endAt = endAt;
+            this.expiresAt = expiresAt;
+        }
+
+        static Hold of(BookingHoldJdbcRepository.StoredHold stored) {
+            return new Hold(stored.id(), stored.vehicleId(), stored.userId(), stored.startAt(), stored.endAt(),
+                    stored.expiresAt());
+        }
+
+        BookingHoldJdbcRepository.StoredHold toStored() {
+            return new BookingHoldJdbcRepository.StoredHold(id, vehicleId, userId, startAt, endAt, expiresAt);
+        }
+
+        public String getId() { return id; }
+        public Long getVehicleId() { return vehicleId; }
+        public LocalDateTime getStartAt() { return startAt; }
+        public LocalDateTime getEndAt() { return endAt; }
+        public LocalDateTime getExpiresAt() { return expiresAt; }
+    }
+}
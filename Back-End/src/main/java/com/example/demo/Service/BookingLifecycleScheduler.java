@@ -0,0 +1,126 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.Booking;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.BookingJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tự động đẩy vòng đời booking theo thời gian:
+ * CONFIRMED đã tới startAt -> ACTIVE (xe RENTED), ACTIVE đã qua endAt -> COMPLETED (xe AVAILABLE),
+ * PENDING đã qua endAt mà chưa được xác nhận -> CANCELLED.
+ * Mỗi batch là một transaction: claim bằng FOR UPDATE SKIP LOCKED rồi bulk UPDATE,
+ * nên nhiều node có thể chạy cùng lúc mà không xử lý trùng.
+ * Hoàn tất chạy trước kích hoạt: khi bàn giao nối tiếp, xe được trả rồi mới giao cho booking kế tiếp.
+ */
+@Component
+public class BookingLifecycleScheduler {
+
+    @Autowired
+    private BookingJdbcRepository bookingJdbcRepository;
+
+    @Autowired
+    private VehicleAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private BookingOutbox outbox;
+
+    @Autowired
+    private VehicleCatalog catalog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${booking.lifecycle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.lifecycle.batch-size:500}")
+    private int batchSize;
+
+    @Value("${booking.lifecycle.max-batches:20}")
+    private int maxBatches;
+
+    @Scheduled(fixedDelayString = "${booking.lifecycle.interval-ms:60000}")
+    public void advanceDueBookings() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        drain(() -> completeBatch(now));
+        drain(() -> activateBatch(now));
+        drain(() -> expirePendingBatch(now));
+    }
+
+    /**
+     * Chạy từng batch cho tới khi batch không đầy hoặc chạm giới hạn số batch mỗi lượt
+     */
+    private void drain(BatchStep step) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < maxBatches; i++) {
+            Integer processed = tx.execute(status -> step.run());
+            if (processed == null || processed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private int activateBatch(LocalDateTime now) {
+        List<BookingJdbcRepository.DueBooking> due =
+                bookingJdbcRepository.claimDueByStart(Booking.BookingStatus.CONFIRMED, now, batchSize);
+        apply(due, Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.ACTIVE);
+        if (!due.isEmpty()) {
+            bookingJdbcRepository.updateVehicleStatus(vehicleIds(due),
+                    Vehicle.VehicleStatus.AVAILABLE, Vehicle.VehicleStatus.RENTED);
+            catalog.onStatusChanged(vehicleIds(due));
+        }
+        return due.size();
+    }
+
+    private int completeBatch(LocalDateTime now) {
+        List<BookingJdbcRepository.DueBooking> due =
+                bookingJdbcRepository.claimDueByEnd(Booking.BookingStatus.ACTIVE, now, batchSize);
+        apply(due, Booking.BookingStatus.ACTIVE, Booking.BookingStatus.COMPLETED);
+        if (!due.isEmpty()) {
+            bookingJdbcRepository.releaseVehicles(vehicleIds(due));
+            catalog.onStatusChanged(vehicleIds(due));
+        }
+        return due.size();
+    }
+
+    private int expirePendingBatch(LocalDateTime now) {
+        List<BookingJdbcRepository.DueBooking> due =
+                bookingJdbcRepository.claimDueByEnd(Booking.BookingStatus.PENDING, now, batchSize);
+        apply(due, Booking.BookingStatus.PENDING, Booking.BookingStatus.CANCELLED);
+        return due.size();
+    }
+
+    private void apply(List<BookingJdbcRepository.DueBooking> due, Booking.BookingStatus from, Booking.BookingStatus status) {
+        if (due.isEmpty()) {
+            return;
+        }
+        bookingJdbcRepository.updateStatus(due.stream().map(BookingJdbcRepository.DueBooking::id).toList(), status);
+        for (BookingJdbcRepository.DueBooking b : due) {
+            availabilityIndex.onBookingChanged(b.id(), b.vehicleId(), b.startAt(), b.endAt(), status);
+            outbox.record(b.id(), b.vehicleId(), from, status, b.startAt(), b.endAt());
+        }
+    }
+
+    private static Set<Long> vehicleIds(List<BookingJdbcRepository.DueBooking> due) {
+        return due.stream().map(BookingJdbcRepository.DueBooking::vehicleId).collect(Collectors.toSet());
+    }
+
+    @FunctionalInterface
+    private interface BatchStep {
+        int run();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.Booking;
+import com.example.demo.Repository.BookingOutboxJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gom event booking của transaction hiện tại và ghi vào booking_outbox bằng một batch insert ngay trước commit,
+ * nên event tồn tại khi và chỉ khi thay đổi booking được commit. Việc phát đi do BookingOutboxRelay làm ở nền.
+ */
+@Component
+public class BookingOutbox {
+
+    @Autowired
+    private BookingOutboxJdbcRepository outboxRepository;
+
+    /**
+     * Ghi nhận booking chuyển từ from sang trạng thái hiện tại (from null: booking mới tạo)
+     */
+    public void record(Booking booking, Booking.BookingStatus from) {
+        record(booking.getId(), booking.getVehicle().getId(), from, booking.getStatus(),
+                booking.getStartAt(), booking.getEndAt());
+    }
+
+    public void record(Long bookingId, Long vehicleId, Booking.BookingStatus from, Booking.BookingStatus to,
+                       LocalDateTime startAt, LocalDateTime endAt) {
+        BookingOutboxJdbcRepository.NewEvent event =
+                new BookingOutboxJdbcRepository.NewEvent(bookingId, vehicleId, from, to, startAt, endAt);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            outboxRepository.insertAll(List.of(event));
+            return;
+        }
+        pending().add(event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<BookingOutboxJdbcRepository.NewEvent> pending() {
+        List<BookingOutboxJdbcRepository.NewEvent> events =
+                (List<BookingOutboxJdbcRepository.NewEvent>) TransactionSynchronizationManager.getResource(this);
+        if (events != null) {
+            return events;
+        }
+        List<BookingOutboxJdbcRepository.NewEvent> fresh = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, fresh);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!fresh.isEmpty()) {
+                    outboxRepository.insertAll(fresh);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(BookingOutbox.this);
+            }
+        });
+        return fresh;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.demo.Service;
+
+import com.example.demo.Repository.BookingOutboxJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Đọc booking_outbox theo batch và giao cho từng BookingEventSink, lưu offset sau mỗi batch thành công.
+ * Mỗi batch của một sink là một transaction giữ khóa dòng offset (SKIP LOCKED), nên nhiều node chạy cùng lúc
+ * thì mỗi sink chỉ được một node relay.
+ * Id outbox cấp lúc INSERT nhưng thấy được lúc commit, nên khi offset vượt qua một id còn thiếu, id đó được ghi vào
+ * booking_outbox_gaps và giao bù khi event xuất hiện; quá gap-timeout thì ghi dead letter GAP_TIMEOUT.
+ * Batch lỗi được giao lại từng event để tách event lỗi; một event lỗi đủ max-attempts lượt thì vào dead letter
+ * SINK_FAILED và offset đi tiếp.
+ */
+@Component
+public class BookingOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingOutboxRelay.class);
+
+    @Autowired
+    private BookingOutboxJdbcRepository outboxRepository;
+
+    @Autowired(required = false)
+    private List<BookingEventSink> sinks = List.of();
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${booking.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${booking.outbox.max-batches:20}")
+    private int maxBatches;
+
+    @Value("${booking.outbox.settle-ms:2000}")
+    private long settleMillis;
+
+    @Value("${booking.outbox.gap-timeout-ms:300000}")
+    private long gapTimeoutMillis;
+
+    @Value("${booking.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${booking.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    @Value("${booking.outbox.dead-letter-retention-days:30}")
+    private long deadLetterRetentionDays;
+
+    @Scheduled(fixedDelayString = "${booking.outbox.interval-ms:1000}")
+    public void relay() {
+        if (!enabled || sinks.isEmpty()) {
+            return;
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (BookingEventSink sink : sinks) {
+            try {
+                outboxRepository.ensureOffset(sink.name());
+                relay(sink, tx);
+            } catch (RuntimeException e) {
+                // Lỗi đọc/ghi outbox: offset chưa đổi, lượt sau chạy lại
+                log.warn("Relay outbox cho sink {} lỗi, thử lại ở lượt sau", sink.name(), e);
+            }
+        }
+    }
+
+    /**
+     * Xóa event mọi sink đã xử lý và đã quá thời gian lưu giữ
+     */
+    @Scheduled(fixedDelayString = "${booking.outbox.purge-interval-ms:600000}")
+    public void purge() {
+        if (!enabled || sinks.isEmpty()) {
+            return;
+        }
+        long upTo = outboxRepository.minOffset(sinks.stream().map(BookingEventSink::name).toList());
+        LocalDateTime olderThan = LocalDateTime.now().minusHours(retentionHours);
+        while (outboxRepository.purge(upTo, olderThan, 5000) == 5000) {
+            // xóa từng phần để không giữ khóa lâu
+        }
+        LocalDateTime deadLettersOlderThan = LocalDateTime.now().minusDays(deadLetterRetentionDays);
+        while (outboxRepository.purgeDeadLetters(deadLettersOlderThan, 5000) == 5000) {
+            // như trên
+        }
+    }
+
+    private void relay(BookingEventSink sink, TransactionTemplate tx) {
+        for (int i = 0; i < maxBatches; i++) {
+            Integer delivered;
+            try {
+                delivered = tx.execute(status -> deliverBatch(sink, batchSize));
+            } catch (SinkFailedException e) {
+                log.warn("Sink {} lỗi khi xử lý batch, giao lại từng event", sink.name(), e.getCause());
+                deliverOneByOne(sink, tx);
+                return;
+            }
+            if (delivered == null || delivered < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Giao từng event một transaction: các event trước event lỗi vẫn đi tiếp, event lỗi được đếm lần thử
+     */
+    private void deliverOneByOne(BookingEventSink sink, TransactionTemplate tx) {
+        for (int i = 0; i < batchSize; i++) {
+            try {
+                Integer delivered = tx.execute(status -> deliverBatch(sink, 1));
+                if (delivered == null || delivered == 0) {
+                    return;
+                }
+            } catch (SinkFailedException e) {
+                tx.executeWithoutResult(status ->
+                        outboxRepository.recordFailure(sink.name(), e.eventId, e.getCause().toString()));
+                log.warn("Sink {} lỗi khi xử lý event {}, giao lại ở lượt sau", sink.name(), e.eventId, e.getCause());
+                return;
+            }
+        }
+    }
+
+    private int deliverBatch(BookingEventSink sink, int limit) {
+        Optional<BookingOutboxJdbcRepository.SinkOffset> locked = outboxRepository.lockOffset(sink.name());
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        BookingOutboxJdbcRepository.SinkOffset offset = locked.get();
+
+        List<Long> lost = outboxRepository.expireGaps(sink.name(), gapTimeoutMillis);
+        if (!lost.isEmpty()) {
+            log.warn("Sink {}: {} id outbox không xuất hiện sau {} ms, ghi dead letter GAP_TIMEOUT: {}",
+                    sink.name(), lost.size(), gapTimeoutMillis, lost);
+        }
+
+        if (offset.failedEventId() != null && offset.failures() >= maxAttempts) {
+            outboxRepository.deadLetter(sink.name(), offset.failedEventId(), offset.lastError());
+            log.error("Sink {}: event {} lỗi {} lần, chuyển sang dead letter SINK_FAILED",
+                    sink.name(), offset.failedEventId(), offset.failures());
+            advance(sink.name(), offset, List.of(offset.failedEventId()));
+            return 1;
+        }
+
+        // Event giao bù (id nhỏ hơn offset) đi trước event mới
+        List<BookingOutboxJdbcRepository.OutboxEvent> events =
+                new ArrayList<>(outboxRepository.findGapArrivals(sink.name(), limit));
+        if (events.size() < limit) {
+            events.addAll(outboxRepository.findAfter(offset.lastEventId(), settleMillis, limit - events.size()));
+        }
+        if (events.isEmpty()) {
+            return 0;
+        }
+        try {
+            sink.handle(events);
+        } catch (RuntimeException e) {
+            throw new SinkFailedException(events.get(0).id(), e);
+        }
+        advance(sink.name(), offset, events.stream().map(BookingOutboxJdbcRepository.OutboxEvent::id).toList());
+        return events.size();
+    }
+
+    /**
+     * Đánh dấu các id (tăng dần) đã xử lý: id nhỏ hơn offset là gap được lấp, id lớn hơn đẩy offset lên
+     * và mọi id bị bỏ qua ở giữa thành gap
+     */
+    private void advance(String sink, BookingOutboxJdbcRepository.SinkOffset offset, List<Long> ids) {
+        long high = offset.lastEventId();
+        List<Long> filled = new ArrayList<>();
+        List<Long> gaps = new ArrayList<>();
+        for (long id : ids) {
+            if (id <= offset.lastEventId()) {
+                filled.add(id);
+                continue;
+            }
+            // Sink mới (offset 0) bắt đầu từ event cũ nhất còn giữ, không coi phần đã purge là gap
+            if (high > 0) {
+                for (long missing = high + 1; missing < id; missing++) {
+                    gaps.add(missing);
+                }
+            }
+            high = id;
+        }
+        outboxRepository.deleteGaps(sink, filled);
+        outboxRepository.addGaps(sink, gaps);
+        outboxRepository.saveOffset(sink, high);
+    }
+
+    private static final class SinkFailedException extends RuntimeException {
+
+        final long eventId;
+
+        SinkFailedException(long eventId, RuntimeException cause) {
+            super(cause);
+            this.eventId = eventId;
+        }
+    }
+}
@@ -1,20 +1,41 @@
 package com.example.demo.Service;
 
 import com.example.demo.DTO.BookingCreateRequest;
+import com.example.demo.DTO.BookingResponse;
+import com.example.demo.DTO.BookingTransitionResult;
+import com.example.demo.DTO.CursorPage;
+import com.example.demo.DTO.PriceQuoteResponse;
 import com.example.demo.Entity.Booking;
 import com.example.demo.Entity.User;
 import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.BookingJdbcRepository;
 import com.example.demo.Repository.BookingRepository;
 import com.example.demo.Repository.VehicleRepository;
+import com.example.demo.Util.KeysetCursor;
+import com.example.demo.Util.RetryOnOptimisticLock;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
-import java.time.Duration;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -29,12 +50,74 @@ public class BookingService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private VehicleAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private VehicleBookingLocks vehicleLocks;
+
+    @Autowired
+    private BookingAdmissionQueues admissionQueues;
+
+    @Autowired
+    private BookingJdbcRepository bookingJdbcRepository;
+
+    @Autowired
+    private BookingHoldService holdService;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private PriceQuoteCache quoteCache;
+
+    @Autowired
+    private FleetRollupService rollupService;
+
+    @Autowired
+    private BookingOutbox outbox;
+
+    @Autowired
+    private VehicleCatalog catalog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final String ADMISSION_MODE_ACTOR = "actor";
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @Value("${booking.admission.mode:lock}")
+    private String admissionMode;
+
+    /**
+     * Không chạy trong transaction của lớp: chế độ actor chờ worker mà không giữ connection,
+     * chế độ lock tự mở transaction cho check-then-insert
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Booking createBooking(BookingCreateRequest req) {
         if (req.getStartAt().isAfter(req.getEndAt()) || req.getStartAt().isEqual(req.getEndAt())) {
             throw new RuntimeException("Thời gian không hợp lệ: startAt phải trước endAt");
         }
 
-        Vehicle vehicle = vehicleRepository.findById(req.getVehicleId())
+        if (ADMISSION_MODE_ACTOR.equalsIgnoreCase(admissionMode)) {
+            // Quyết định conflict in-memory bởi worker của xe, không khóa dòng trong DB.
+            // Luồng request không đọc database: worker tự đọc xe và renter trong transaction của nó
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth == null || !auth.isAuthenticated()) {
+                throw new RuntimeException("User chưa đăng nhập!");
+            }
+            return admissionQueues.submit(req.getVehicleId(), auth.getName(),
+                    (vehicle, renter) -> buildBooking(req, vehicle, renter));
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> createBookingLocked(req));
+    }
+
+    private Booking createBookingLocked(BookingCreateRequest req) {
+        // Tuần tự hóa theo từng xe: stripe lock trong node + khóa dòng vehicle trong DB,
+        // cả hai giữ tới khi transaction kết thúc để check-then-insert không bị chen ngang
+        vehicleLocks.lockUntilCompletion(req.getVehicleId());
+        Vehicle vehicle = vehicleRepository.findByIdForUpdate(req.getVehicleId())
                 .orElseThrow(() -> new RuntimeException("Vehicle không tồn tại!"));
 
         // Check overlaps for active-like statuses
@@ -45,38 +128,168 @@ public class BookingService {
 
         // Current user as renter
         User renter = userService.getCurrentUser();
+        holdService.ensureNotHeldByOthers(vehicle.getId(), req.getStartAt(), req.getEndAt(), renter.getId());
+
+        Booking saved = bookingRepository.save(buildBooking(req, vehicle, renter));
+        availabilityIndex.onBookingChanged(saved);
+        outbox.record(saved, null);
+        holdService.consumeHolds(vehicle.getId(), req.getStartAt(), req.getEndAt(), renter.getId());
+        return saved;
+    }
+
+    /**
+     * Đặt nhiều xe cùng lúc (all-or-nothing): một query khóa vehicles, một query overlap,
+     * một JDBC batch insert, tất cả trong một transaction
+     */
+    public List<Long> createBookings(List<BookingCreateRequest> items) {
+        for (BookingCreateRequest req : items) {
+            if (!req.getStartAt().isBefore(req.getEndAt())) {
+                throw new RuntimeException("Thời gian không hợp lệ: startAt phải trước endAt");
+            }
+        }
+
+        Set<Long> vehicleIds = items.stream().map(BookingCreateRequest::getVehicleId).collect(Collectors.toSet());
+        vehicleLocks.lockAllUntilCompletion(vehicleIds);
+        Map<Long, Vehicle> vehicles = vehicleRepository.findAllByIdForUpdate(vehicleIds).stream()
+                .collect(Collectors.toMap(Vehicle::getId, Function.identity()));
+        if (vehicles.size() != vehicleIds.size()) {
+            throw new RuntimeException("Vehicle không tồn tại!");
+        }
+
+        // Các dòng trong cùng giỏ không được chồng lấn nhau
+        for (int i = 0; i < items.size(); i++) {
+            for (int j = i + 1; j < items.size(); j++) {
+                BookingCreateRequest a = items.get(i);
+                BookingCreateRequest b = items.get(j);
+                if (a.getVehicleId().equals(b.getVehicleId()) && overlaps(a.getStartAt(), a.getEndAt(), b.getStartAt(), b.getEndAt())) {
+                    throw new RuntimeException("Xe đã được đặt trong khoảng thời gian này");
+                }
+            }
+        }
+
+        // Một query overlap cho cả giỏ (khoảng bao), lọc chính xác từng dòng in-memory
+        LocalDateTime minStart = items.stream().map(BookingCreateRequest::getStartAt).min(LocalDateTime::compareTo).orElseThrow();
+        LocalDateTime maxEnd = items.stream().map(BookingCreateRequest::getEndAt).max(LocalDateTime::compareTo).orElseThrow();
+        List<Booking> existing = bookingRepository.findOverlapsForVehicles(vehicleIds, minStart, maxEnd);
+        for (BookingCreateRequest req : items) {
+            for (Booking b : existing) {
+                if (b.getVehicle().getId().equals(req.getVehicleId())
+                        && overlaps(req.getStartAt(), req.getEndAt(), b.getStartAt(), b.getEndAt())) {
+                    throw new RuntimeException("Xe đã được đặt trong khoảng thời gian này");
+                }
+            }
+        }
+
+        User renter = userService.getCurrentUser();
+        for (BookingCreateRequest req : items) {
+            holdService.ensureNotHeldByOthers(req.getVehicleId(), req.getStartAt(), req.getEndAt(), renter.getId());
+        }
+        List<Booking> drafts = items.stream()
+                .map(req -> buildBooking(req, vehicles.get(req.getVehicleId()), renter))
+                .toList();
+        List<Long> ids = bookingJdbcRepository.insertAll(drafts);
+        for (int i = 0; i < drafts.size(); i++) {
+            Booking draft = drafts.get(i);
+            availabilityIndex.onBookingChanged(ids.get(i), draft.getVehicle().getId(),
+                    draft.getStartAt(), draft.getEndAt(), draft.getStatus());
+            outbox.record(ids.get(i), draft.getVehicle().getId(), null, draft.getStatus(), draft.getStartAt(), draft.getEndAt());
+            holdService.consumeHolds(draft.getVehicle().getId(), draft.getStartAt(), draft.getEndAt(), renter.getId());
+        }
+        return ids;
+    }
 
-        // Calculate days (ceil to at least 1 day)
-        long minutes = Duration.between(req.getStartAt(), req.getEndAt()).toMinutes();
-        long days = Math.max(1, (long) Math.ceil(minutes / (60.0 * 24.0)));
+    private static boolean overlaps(LocalDateTime startA, LocalDateTime endA, LocalDateTime startB, LocalDateTime endB) {
+        return startA.isBefore(endB) && endA.isAfter(startB);
+    }
 
-        BigDecimal dailyPriceSnapshot = vehicle.getDailyPrice();
-        BigDecimal totalAmount = dailyPriceSnapshot.multiply(BigDecimal.valueOf(days));
+    private Booking buildBooking(BookingCreateRequest req, Vehicle vehicle, User renter) {
+        long totalMinor = quoteMinor(vehicle, req.getStartAt(), req.getEndAt());
 
         Booking booking = new Booking();
         booking.setVehicle(vehicle);
         booking.setRenter(renter);
         booking.setStartAt(req.getStartAt());
         booking.setEndAt(req.getEndAt());
-        booking.setDailyPriceSnapshot(dailyPriceSnapshot);
-        booking.setTotalAmount(totalAmount);
+        booking.setDailyPriceSnapshot(vehicle.getDailyPrice());
+        booking.setTotalAmount(PricingEngine.fromMinor(totalMinor, vehicle.getCurrency()));
         booking.setCurrency(vehicle.getCurrency());
         booking.setNotes(req.getNotes());
+        return booking;
+    }
+
+    /**
+     * Báo giá cho form đặt xe, cùng công thức với buildBooking; memo theo (xe, version xe, version giá, ngày bắt đầu, số ngày).
+     * Giá và version xe đọc chung một câu theo khóa chính, không mở transaction riêng.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public PriceQuoteResponse quote(Long vehicleId, LocalDateTime startAt, LocalDateTime endAt) {
+        if (!startAt.isBefore(endAt)) {
+            throw new RuntimeException("Thời gian không hợp lệ: startAt phải trước endAt");
+        }
+        int days = PricingEngine.chargeableDays(startAt, endAt);
+        VehicleRepository.VehiclePriceView vehicle = vehicleRepository.findPriceById(vehicleId)
+                .orElseThrow(() -> new RuntimeException("Vehicle không tồn tại!"));
+        PriceQuoteCache.Quote quote = quoteCache.get(vehicle, startAt.toLocalDate(), days, () -> {
+            long totalMinor = pricingEngine.quoteMinor(vehicle.getVehicleType(),
+                    PricingEngine.toMinor(vehicle.getDailyPrice(), vehicle.getCurrency()), startAt.toLocalDate(), days);
+            return new PriceQuoteCache.Quote(vehicle.getDailyPrice(),
+                    PricingEngine.fromMinor(totalMinor, vehicle.getCurrency()), vehicle.getCurrency());
+        });
+        return new PriceQuoteResponse(vehicleId, startAt, endAt, days,
+                quote.dailyPrice(), quote.totalAmount(), quote.currency());
+    }
 
-        return bookingRepository.save(booking);
+    private long quoteMinor(Vehicle vehicle, LocalDateTime startAt, LocalDateTime endAt) {
+        return pricingEngine.quoteMinor(vehicle.getVehicleType(),
+                PricingEngine.toMinor(vehicle.getDailyPrice(), vehicle.getCurrency()),
+                startAt.toLocalDate(), PricingEngine.chargeableDays(startAt, endAt));
     }
 
-    public List<Booking> getMyBookings() {
+    /**
+     * Bookings của user hiện tại (admin: tất cả), keyset pagination trên (createdAt, id) giảm dần
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookingResponse> getMyBookings(String cursor, int limit) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated()) {
             throw new RuntimeException("User chưa đăng nhập!");
         }
         User current = userService.getCurrentUser();
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // Lấy dư một dòng để biết còn trang sau hay không
+        Limit fetch = Limit.of(pageSize + 1);
+
+        Timestamp afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] keys = KeysetCursor.decode(cursor, 2);
+            try {
+                afterCreatedAt = Timestamp.valueOf(LocalDateTime.parse(keys[0]));
+                afterId = Long.valueOf(keys[1]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Cursor không hợp lệ");
+            }
+        }
+
+        List<BookingResponse> rows;
         // Admin có thể xem tất cả bookings
         if (current.getRole() == User.Role.ADMIN) {
-            return bookingRepository.findAllByOrderByCreatedAtDesc();
+            rows = afterId == null
+                    ? bookingRepository.findPage(fetch)
+                    : bookingRepository.findPageAfter(afterCreatedAt, afterId, fetch);
+        } else {
+            rows = afterId == null
+                    ? bookingRepository.findPageByRenter(current.getId(), fetch)
+                    : bookingRepository.findPageByRenterAfter(current.getId(), afterCreatedAt, afterId, fetch);
         }
-        return bookingRepository.findByRenterIdOrderByCreatedAtDesc(current.getId());
+
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<BookingResponse> items = rows.subList(0, pageSize);
+        BookingResponse last = items.get(pageSize - 1);
+        String next = KeysetCursor.encode(last.getCreatedAt().toString(), String.valueOf(last.getId()));
+        return new CursorPage<>(items, next);
     }
 
     public Booking getForOwnerOrAdmin(Long id) {
@@ -90,6 +303,7 @@ public class BookingService {
         return booking;
     }
 
+    @RetryOnOptimisticLock
     public Booking confirm(Long id) {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Booking không tồn tại!"));
@@ -105,9 +319,16 @@ public class BookingService {
         booking.setStatus(Booking.BookingStatus.ACTIVE);
         vehicle.setStatus(Vehicle.VehicleStatus.RENTED);
         vehicleRepository.save(vehicle);
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.saveAndFlush(booking);
+        availabilityIndex.onBookingChanged(saved);
+        rollupService.onStatusChanged(saved, Booking.BookingStatus.PENDING, Booking.BookingStatus.ACTIVE);
+        outbox.record(saved, Booking.BookingStatus.PENDING);
+        // Sau cùng, khi dòng booking/vehicles đã flush: cùng thứ tự khóa với scheduler và cập nhật hàng loạt
+        catalog.onStatusChanged(List.of(vehicle.getId()));
+        return saved;
     }
 
+    @RetryOnOptimisticLock
     public Booking activate(Long id) {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Booking không tồn tại!"));
@@ -123,9 +344,15 @@ public class BookingService {
         // Sync vehicle status
         vehicle.setStatus(Vehicle.VehicleStatus.RENTED);
         vehicleRepository.save(vehicle);
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.saveAndFlush(booking);
+        availabilityIndex.onBookingChanged(saved);
+        rollupService.onStatusChanged(saved, Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.ACTIVE);
+        outbox.record(saved, Booking.BookingStatus.CONFIRMED);
+        catalog.onStatusChanged(List.of(vehicle.getId()));
+        return saved;
     }
 
+    @RetryOnOptimisticLock
     public Booking complete(Long id) {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Booking không tồn tại!"));
@@ -137,9 +364,15 @@ public class BookingService {
         Vehicle vehicle = booking.getVehicle();
         vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
         vehicleRepository.save(vehicle);
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.saveAndFlush(booking);
+        availabilityIndex.onBookingChanged(saved);
+        rollupService.onStatusChanged(saved, Booking.BookingStatus.ACTIVE, Booking.BookingStatus.COMPLETED);
+        outbox.record(saved, Booking.BookingStatus.ACTIVE);
+        catalog.onStatusChanged(List.of(vehicle.getId()));
+        return saved;
     }
 
+    @RetryOnOptimisticLock
     public Booking cancel(Long id) {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Booking không tồn tại!"));
@@ -158,13 +391,125 @@ public class BookingService {
                 default -> throw new RuntimeException("Không thể hủy ở trạng thái hiện tại");
             }
         }
+        Booking.BookingStatus previous = booking.getStatus();
         booking.setStatus(Booking.BookingStatus.CANCELLED);
         // Release vehicle if was active (defensive)
         Vehicle vehicle = booking.getVehicle();
         vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
         vehicleRepository.save(vehicle);
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.saveAndFlush(booking);
+        availabilityIndex.onBookingChanged(saved);
+        rollupService.onStatusChanged(saved, previous, Booking.BookingStatus.CANCELLED);
+        outbox.record(saved, previous);
+        catalog.onStatusChanged(List.of(vehicle.getId()));
+        return saved;
+    }
+
+    /**
+     * Xác nhận hàng loạt: PENDING -> ACTIVE, xe AVAILABLE -> RENTED
+     */
+    @RetryOnOptimisticLock
+    public List<BookingTransitionResult> bulkConfirm(Collection<Long> ids) {
+        return bulkTransition(ids, Booking.BookingStatus.ACTIVE);
     }
-}
 
+    /**
+     * Hoàn tất hàng loạt: ACTIVE -> COMPLETED, xe RENTED -> AVAILABLE
+     */
+    @RetryOnOptimisticLock
+    public List<BookingTransitionResult> bulkComplete(Collection<Long> ids) {
+        return bulkTransition(ids, Booking.BookingStatus.COMPLETED);
+    }
+
+    /**
+     * Hủy hàng loạt các booking PENDING/CONFIRMED/ACTIVE; chỉ trả xe khi booking đang ACTIVE
+     */
+    @RetryOnOptimisticLock
+    public List<BookingTransitionResult> bulkCancel(Collection<Long> ids) {
+        return bulkTransition(ids, Booking.BookingStatus.CANCELLED);
+    }
+
+    /**
+     * Một query load booking + xe, kiểm tra từng booking in-memory, rồi UPDATE theo tập có điều kiện trạng thái cũ.
+     * Nếu số dòng cập nhật lệch (có người vừa đổi trạng thái) thì rollback và cả lô chạy lại với dữ liệu mới.
+     */
+    private List<BookingTransitionResult> bulkTransition(Collection<Long> ids, Booking.BookingStatus target) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, Booking> bookings = bookingRepository.findAllWithVehicleByIdIn(requested).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        Vehicle.VehicleStatus vehicleFrom = target == Booking.BookingStatus.ACTIVE
+                ? Vehicle.VehicleStatus.AVAILABLE : Vehicle.VehicleStatus.RENTED;
+        Vehicle.VehicleStatus vehicleTo = target == Booking.BookingStatus.ACTIVE
+                ? Vehicle.VehicleStatus.RENTED : Vehicle.VehicleStatus.AVAILABLE;
+
+        List<BookingTransitionResult> results = new ArrayList<>(requested.size());
+        Map<Booking.BookingStatus, List<Long>> idsByStatus = new EnumMap<>(Booking.BookingStatus.class);
+        Set<Long> vehicleIds = new LinkedHashSet<>();
+        List<Booking> accepted = new ArrayList<>();
+        for (Long id : requested) {
+            Booking booking = bookings.get(id);
+            String error = booking == null ? "Booking không tồn tại!" : checkBulkTransition(booking, target, vehicleIds);
+            if (error != null) {
+                results.add(BookingTransitionResult.failed(id, error));
+                continue;
+            }
+            Vehicle vehicle = booking.getVehicle();
+            // Confirm luôn lấy xe; complete/cancel chỉ trả xe đang RENTED bởi booking ACTIVE
+            if (target == Booking.BookingStatus.ACTIVE
+                    || (booking.getStatus() == Booking.BookingStatus.ACTIVE && vehicle.getStatus() == vehicleFrom)) {
+                vehicleIds.add(vehicle.getId());
+            }
+            idsByStatus.computeIfAbsent(booking.getStatus(), k -> new ArrayList<>()).add(id);
+            accepted.add(booking);
+            results.add(BookingTransitionResult.ok(id, target));
+        }
+
+        for (Map.Entry<Booking.BookingStatus, List<Long>> group : idsByStatus.entrySet()) {
+            if (bookingJdbcRepository.updateStatus(group.getValue(), group.getKey(), target) != group.getValue().size()) {
+                throw new OptimisticLockingFailureException("Booking vừa được người khác cập nhật");
+            }
+        }
+        if (!vehicleIds.isEmpty()
+                && bookingJdbcRepository.updateVehicleStatus(vehicleIds, vehicleFrom, vehicleTo) != vehicleIds.size()) {
+            throw new OptimisticLockingFailureException("Trạng thái xe vừa được người khác cập nhật");
+        }
+
+        List<FleetRollupService.Change> changes = new ArrayList<>(accepted.size());
+        for (Booking booking : accepted) {
+            availabilityIndex.onBookingChanged(booking.getId(), booking.getVehicle().getId(),
+                    booking.getStartAt(), booking.getEndAt(), target);
+            changes.add(new FleetRollupService.Change(booking.getVehicle().getId(), booking.getStartAt(),
+                    booking.getEndAt(), booking.getTotalAmount(), booking.getCurrency(), booking.getStatus(), target));
+            outbox.record(booking.getId(), booking.getVehicle().getId(), booking.getStatus(), target,
+                    booking.getStartAt(), booking.getEndAt());
+        }
+        rollupService.apply(changes);
+        catalog.onStatusChanged(vehicleIds);
+        return results;
+    }
 
+    /**
+     * Cùng luật với confirm/complete/cancel (phía nhân viên); trả về lý do từ chối hoặc null
+     */
+    private static String checkBulkTransition(Booking booking, Booking.BookingStatus target, Set<Long> vehiclesTaken) {
+        Booking.BookingStatus status = booking.getStatus();
+        Vehicle vehicle = booking.getVehicle();
+        return switch (target) {
+            case ACTIVE -> {
+                if (status != Booking.BookingStatus.PENDING) {
+                    yield "Chỉ xác nhận booking ở trạng thái PENDING";
+                }
+                // Hai booking cùng xe trong một lô: chỉ booking đầu tiên lấy được xe
+                if (vehicle.getStatus() != Vehicle.VehicleStatus.AVAILABLE || vehiclesTaken.contains(vehicle.getId())) {
+                    yield "Xe hiện không sẵn sàng: " + (vehiclesTaken.contains(vehicle.getId())
+                            ? Vehicle.VehicleStatus.RENTED : vehicle.getStatus());
+                }
+                yield null;
+            }
+            case COMPLETED -> status == Booking.BookingStatus.ACTIVE ? null : "Chỉ hoàn tất booking ở trạng thái ACTIVE";
+            case CANCELLED -> status.blocksVehicle() ? null : "Không thể hủy ở trạng thái hiện tại";
+            default -> throw new IllegalArgumentException("Không hỗ trợ chuyển hàng loạt sang " + target);
+        };
+    }
+}
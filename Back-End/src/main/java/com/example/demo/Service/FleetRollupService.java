@@ -0,0 +1,166 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.UtilizationResponse;
+import com.example.demo.Entity.Booking;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.VehicleRollupJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tổng hợp theo ngày cho từng xe (phút đã thuê, doanh thu minor unit, số booking), cập nhật tăng dần
+ * trong cùng transaction với chuyển trạng thái booking. Booking được tính khi ở CONFIRMED/ACTIVE/COMPLETED,
+ * nên chỉ các chuyển vào/ra nhóm này (xác nhận, hủy) làm đổi rollup; scheduler vòng đời không cần gọi.
+ * Báo cáo chỉ đọc bảng rollup.
+ */
+@Service
+@Transactional
+public class FleetRollupService {
+
+    private static final long MINUTES_PER_DAY = 24L * 60L;
+
+    public static final int MAX_REPORT_DAYS = 366;
+
+    @Autowired
+    private VehicleRollupJdbcRepository rollupRepository;
+
+    /**
+     * Ghi nhận một lần đổi trạng thái; không làm gì nếu booking không vào/ra nhóm được tính
+     */
+    public void onStatusChanged(Booking booking, Booking.BookingStatus from, Booking.BookingStatus to) {
+        apply(List.of(new Change(booking.getVehicle().getId(), booking.getStartAt(), booking.getEndAt(),
+                booking.getTotalAmount(), booking.getCurrency(), from, to)));
+    }
+
+    /**
+     * Gộp delta của cả lô theo (xe, ngày) rồi upsert một batch
+     */
+    public void apply(Collection<Change> changes) {
+        Map<DayKey, long[]> totals = new HashMap<>();
+        for (Change change : changes) {
+            int sign = (counts(change.to()) ? 1 : 0) - (counts(change.from()) ? 1 : 0);
+            if (sign != 0) {
+                split(change.vehicleId(), change.startAt(), change.endAt(),
+                        PricingEngine.toMinor(change.totalAmount(), change.currency()), sign, null, null, totals);
+            }
+        }
+        rollupRepository.addAll(toDeltas(totals));
+    }
+
+    /**
+     * Dựng lại rollup của các ngày [from, to] từ bảng bookings (backfill hoặc sửa lệch)
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        rollupRepository.deleteRange(from, to);
+        Map<DayKey, long[]> totals = new HashMap<>();
+        rollupRepository.forEachCountedBooking(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), rs -> split(
+                rs.getLong("vehicle_id"),
+                rs.getTimestamp("start_at").toLocalDateTime(),
+                rs.getTimestamp("end_at").toLocalDateTime(),
+                PricingEngine.toMinor(rs.getBigDecimal("total_amount"), rs.getString("currency")),
+                1, from, to, totals));
+        List<VehicleRollupJdbcRepository.DayDelta> deltas = toDeltas(totals);
+        rollupRepository.addAll(deltas);
+        return deltas.size();
+    }
+
+    /**
+     * Báo cáo theo ngày, groupBy = vehicle | type. Tỷ lệ lấp đầy = phút đã thuê / (số xe x 1440)
+     */
+    @Transactional(readOnly = true)
+    public List<UtilizationResponse> report(LocalDate from, LocalDate to, String groupBy) {
+        checkRange(from, to);
+        if ("type".equalsIgnoreCase(groupBy)) {
+            Map<Vehicle.VehicleType, Integer> fleet = rollupRepository.countVehiclesByType();
+            return rollupRepository.findByVehicleType(from, to).stream()
+                    .map(r -> toResponse(r, fleet.getOrDefault(r.vehicleType(), 0)))
+                    .toList();
+        }
+        if (!"vehicle".equalsIgnoreCase(groupBy)) {
+            throw new RuntimeException("groupBy chỉ nhận vehicle hoặc type");
+        }
+        return rollupRepository.findByVehicle(from, to).stream()
+                .map(r -> toResponse(r, 1))
+                .toList();
+    }
+
+    private static UtilizationResponse toResponse(VehicleRollupJdbcRepository.UtilizationRow row, int vehicles) {
+        double occupancy = vehicles == 0 ? 0 : (double) row.bookedMinutes() / (vehicles * MINUTES_PER_DAY);
+        return new UtilizationResponse(row.day().toString(), row.vehicleId(), row.vehicleType(),
+                row.bookedMinutes(), row.revenueMinor(), row.bookingCount(), occupancy);
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("Khoảng ngày không hợp lệ: from phải trước hoặc bằng to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_REPORT_DAYS) {
+            throw new RuntimeException("Khoảng ngày tối đa " + MAX_REPORT_DAYS + " ngày");
+        }
+    }
+
+    private static boolean counts(Booking.BookingStatus status) {
+        return status == Booking.BookingStatus.CONFIRMED
+                || status == Booking.BookingStatus.ACTIVE
+                || status == Booking.BookingStatus.COMPLETED;
+    }
+
+    /**
+     * Chia booking theo các ngày nó chạm: phút theo phần giao với từng ngày, doanh thu theo tỷ lệ phút
+     * (phần dư dồn vào ngày cuối), số booking tính vào ngày bắt đầu. clipFrom/clipTo (nếu có) bỏ các ngày ngoài khoảng.
+     */
+    static void split(long vehicleId, LocalDateTime startAt, LocalDateTime endAt, long revenueMinor, int sign,
+                      LocalDate clipFrom, LocalDate clipTo, Map<DayKey, long[]> totals) {
+        long totalMinutes = Duration.between(startAt, endAt).toMinutes();
+        if (totalMinutes <= 0) {
+            return;
+        }
+        long revenueLeft = revenueMinor;
+        LocalDate day = startAt.toLocalDate();
+        while (day.atStartOfDay().isBefore(endAt)) {
+            LocalDateTime dayStart = day.atStartOfDay();
+            LocalDateTime dayEnd = dayStart.plusDays(1);
+            LocalDateTime from = startAt.isAfter(dayStart) ? startAt : dayStart;
+            LocalDateTime to = endAt.isBefore(dayEnd) ? endAt : dayEnd;
+            long minutes = Duration.between(from, to).toMinutes();
+            boolean last = !dayEnd.isBefore(endAt);
+            long revenue = last ? revenueLeft : Math.multiplyExact(revenueMinor, minutes) / totalMinutes;
+            revenueLeft -= revenue;
+            boolean inRange = (clipFrom == null || !day.isBefore(clipFrom)) && (clipTo == null || !day.isAfter(clipTo));
+            if (inRange) {
+                long[] sums = totals.computeIfAbsent(new DayKey(vehicleId, day), k -> new long[3]);
+                sums[0] += sign * minutes;
+                sums[1] += sign * revenue;
+                sums[2] += day.equals(startAt.toLocalDate()) ? sign : 0;
+            }
+            day = day.plusDays(1);
+        }
+    }
+
+    private static List<VehicleRollupJdbcRepository.DayDelta> toDeltas(Map<DayKey, long[]> totals) {
+        List<VehicleRollupJdbcRepository.DayDelta> deltas = new ArrayList<>(totals.size());
+        totals.forEach((key, sums) -> deltas.add(new VehicleRollupJdbcRepository.DayDelta(
+                key.vehicleId(), key.day(), sums[0], sums[1], (int) sums[2])));
+        return deltas;
+    }
+
+    record DayKey(long vehicleId, LocalDate day) {
+    }
+
+    public record Change(long vehicleId, LocalDateTime startAt, LocalDateTime endAt, BigDecimal totalAmount,
+                         String currency, Booking.BookingStatus from, Booking.BookingStatus to) {
+    }
+}
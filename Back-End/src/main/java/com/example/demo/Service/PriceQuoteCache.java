@@ -0,0 +1,48 @@
+package com.example.demo.Service;
+
+import com.example.demo.Repository.VehicleRepository;
+import com.example.demo.Util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Memo báo giá theo (xe, version của xe, version bảng giá, ngày bắt đầu, số ngày).
+ * Ngày bắt đầu nằm trong key vì giá mùa/cuối tuần phụ thuộc ngày; giờ trong ngày thì không.
+ * Version của xe là cột vehicles.version (tăng ở mọi lần ghi, kể cả từ node khác), đọc cùng giá xe
+ * nên key luôn khớp với giá đang lưu; version bảng giá đổi khi PricingEngine biên dịch lại.
+ * Key cũ không còn được tra tới, entry cũ tự bị LRU đẩy ra.
+ */
+@Component
+public class PriceQuoteCache {
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    private final LruCache<QuoteKey, Quote> cache;
+
+    public PriceQuoteCache(@Value("${booking.quote.cache-max-entries:10000}") int maxEntries) {
+        this.cache = new LruCache<>(maxEntries);
+    }
+
+    public Quote get(VehicleRepository.VehiclePriceView vehicle, LocalDate firstDay, int days, Supplier<Quote> loader) {
+        QuoteKey key = new QuoteKey(vehicle.getId(), vehicle.getVersion(), pricingEngine.version(),
+                firstDay.toEpochDay(), days);
+        Quote quote = cache.get(key);
+        if (quote == null) {
+            quote = loader.get();
+            cache.put(key, quote);
+        }
+        return quote;
+    }
+
+    public record Quote(BigDecimal dailyPrice, BigDecimal totalAmount, String currency) {
+    }
+
+    private record QuoteKey(long vehicleId, long vehicleVersion, long priceVersion, long firstDay, int days) {
+    }
+}
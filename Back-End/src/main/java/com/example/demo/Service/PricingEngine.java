@@ -0,0 +1,298 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.RatePlan;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.DataVersionJdbcRepository;
+import com.example.demo.Repository.RatePlanRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Biên dịch rate plan thành bảng tra theo loại xe: prefixBp[i] = tổng hệ số (basis point) của
+ * các ngày fromDay .. fromDay + i - 1, nên giá một khoảng bất kỳ trong horizon là O(1) phép long.
+ * Ngoài horizon thì tính từng ngày (O(days)). Tiền tính bằng đơn vị nhỏ nhất của currency (VND: đồng).
+ * Mỗi node giữ bảng riêng: sửa rate plan tăng version "rate_plans" trong data_versions,
+ * node khác poll version đó và biên dịch lại khi đổi.
+ */
+@Component
+public class PricingEngine {
+
+    private static final long BP = 10_000L;
+    private static final long MINUTES_PER_DAY = 24L * 60L;
+
+    @Autowired
+    private RatePlanRepository ratePlanRepository;
+
+    @Autowired
+    private DataVersionJdbcRepository dataVersionRepository;
+
+    @Value("${pricing.horizon-past-days:30}")
+    private int horizonPastDays;
+
+    @Value("${pricing.horizon-days:730}")
+    private int horizonDays;
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile Compiled compiled;
+
+    /**
+     * Dựng lại bảng giá: khi khởi động, mỗi đêm (dời horizon) và sau khi rate plan thay đổi.
+     * Đọc version trước rate plan: nếu có ghi chen giữa thì lần poll sau thấy version mới và dựng lại
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${pricing.recompile-cron:0 5 0 * * *}")
+    public synchronized void compile() {
+        long planVersion = dataVersionRepository.current(DataVersionJdbcRepository.RATE_PLANS);
+        compiled = compile(planVersion, ratePlanRepository.findByActiveTrue());
+    }
+
+    /**
+     * Nhận thay đổi rate plan từ node khác: biên dịch lại khi version trong DB khác version đã biên dịch
+     */
+    @Scheduled(fixedDelayString = "${pricing.version-poll-ms:5000}")
+    public void recompileIfChanged() {
+        Compiled current = compiled;
+        if (current != null && dataVersionRepository.current(DataVersionJdbcRepository.RATE_PLANS) != current.planVersion()) {
+            compile();
+        }
+    }
+
+    /**
+     * Biên dịch lại sau khi transaction sửa rate plan commit
+     */
+    public void recompileAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    compile();
+                }
+            });
+        } else {
+            compile();
+        }
+    }
+
+    /**
+     * Version của bảng giá hiện tại, tăng mỗi lần biên dịch lại
+     */
+    public long version() {
+        return compiled().version();
+    }
+
+    /**
+     * Tổng tiền (minor unit) cho days ngày tính từ firstDay với giá ngày dailyPriceMinor
+     */
+    public long quoteMinor(Vehicle.VehicleType type, long dailyPriceMinor, LocalDate firstDay, int days) {
+        Compiled current = compiled();
+        TypeTable table = current.tables().get(type);
+        long dayBp = table.sumBp(firstDay.toEpochDay(), days, current.fromDay());
+        long total = divideBp(Math.multiplyExact(dailyPriceMinor, dayBp));
+        return divideBp(Math.multiplyExact(total, BP + table.longRentalBp(days)));
+    }
+
+    /**
+     * Số ngày tính tiền: làm tròn lên theo 24h, tối thiểu 1 ngày
+     */
+    public static int chargeableDays(LocalDateTime startAt, LocalDateTime endAt) {
+        long minutes = Duration.between(startAt, endAt).toMinutes();
+        return (int) Math.max(1, (minutes + MINUTES_PER_DAY - 1) / MINUTES_PER_DAY);
+    }
+
+    public static long toMinor(BigDecimal amount, String currency) {
+        return amount.setScale(fractionDigits(currency), RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal fromMinor(long amount, String currency) {
+        return BigDecimal.valueOf(amount, fractionDigits(currency));
+    }
+
+    /**
+     * Trả lại mã nếu là tiền tệ ISO 4217, ngược lại báo lỗi (Currency.getInstance ném IllegalArgumentException)
+     */
+    public static String requireCurrency(String currency) {
+        currency(currency);
+        return currency;
+    }
+
+    private static int fractionDigits(String currency) {
+        return Math.max(0, currency(currency).getDefaultFractionDigits());
+    }
+
+    private static Currency currency(String currency) {
+        try {
+            return Currency.getInstance(currency);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new RuntimeException("Mã tiền tệ không hợp lệ: " + currency);
+        }
+    }
+
+    private static long divideBp(long value) {
+        return Math.floorDiv(value + BP / 2, BP);
+    }
+
+    private Compiled compiled() {
+        Compiled current = compiled;
+        if (current == null) {
+            synchronized (this) {
+                if (compiled == null) {
+                    compile();
+                }
+                current = compiled;
+            }
+        }
+        return current;
+    }
+
+    private Compiled compile(long planVersion, List<RatePlan> plans) {
+        long fromDay = LocalDate.now().toEpochDay() - horizonPastDays;
+        int length = horizonPastDays + horizonDays;
+        EnumMap<Vehicle.VehicleType, TypeTable> tables = new EnumMap<>(Vehicle.VehicleType.class);
+        for (Vehicle.VehicleType type : Vehicle.VehicleType.values()) {
+            List<RatePlan> applicable = plans.stream()
+                    .filter(p -> p.getVehicleType() == null || p.getVehicleType() == type)
+                    .toList();
+            tables.put(type, TypeTable.of(applicable, fromDay, length));
+        }
+        return new Compiled(versions.incrementAndGet(), planVersion, fromDay, tables);
+    }
+
+    private record Compiled(long version, long planVersion, long fromDay, EnumMap<Vehicle.VehicleType, TypeTable> tables) {
+    }
+
+    /**
+     * Bảng của một loại xe. Các mảng season* và weekendBp giữ lại để tính ngày ngoài horizon.
+     */
+    static final class TypeTable {
+
+        final long[] prefixBp;
+        final long[] seasonStarts;
+        final long[] seasonEnds;
+        final int[] seasonBps;
+        final int weekendBp;
+        // Sort giảm dần theo minDays: plan đầu tiên có minDays <= days là mức thuê dài ngày được áp
+        final int[] longMinDays;
+        final int[] longBps;
+
+        private TypeTable(long[] prefixBp, long[] seasonStarts, long[] seasonEnds, int[] seasonBps, int weekendBp,
+                          int[] longMinDays, int[] longBps) {
+            this.prefixBp = prefixBp;
+            this.seasonStarts = seasonStarts;
+            this.seasonEnds = seasonEnds;
+            this.seasonBps = seasonBps;
+            this.weekendBp = weekendBp;
+            this.longMinDays = longMinDays;
+            this.longBps = longBps;
+        }
+
+        static TypeTable of(List<RatePlan> plans, long fromDay, int length) {
+            List<RatePlan> seasons = new ArrayList<>();
+            List<RatePlan> longRentals = new ArrayList<>();
+            int weekendBp = 0;
+            for (RatePlan plan : plans) {
+                switch (plan.getKind()) {
+                    case SEASONAL -> seasons.add(plan);
+                    case WEEKEND -> weekendBp += plan.getAdjustmentBp();
+                    case LONG_RENTAL -> longRentals.add(plan);
+                }
+            }
+
+            long[] seasonStarts = new long[seasons.size()];
+            long[] seasonEnds = new long[seasons.size()];
+            int[] seasonBps = new int[seasons.size()];
+            for (int i = 0; i < seasons.size(); i++) {
+                seasonStarts[i] = seasons.get(i).getStartDate().toEpochDay();
+                seasonEnds[i] = seasons.get(i).getEndDate().toEpochDay();
+                seasonBps[i] = seasons.get(i).getAdjustmentBp();
+            }
+
+            longRentals.sort(Comparator.comparing(RatePlan::getMinDays).reversed());
+            int[] longMinDays = new int[longRentals.size()];
+            int[] longBps = new int[longRentals.size()];
+            for (int i = 0; i < longRentals.size(); i++) {
+                longMinDays[i] = longRentals.get(i).getMinDays();
+                longBps[i] = longRentals.get(i).getAdjustmentBp();
+            }
+
+            // Cộng dồn theo kiểu difference array: mỗi mùa O(1), rồi một lượt qua horizon
+            long[] delta = new long[length + 1];
+            for (int i = 0; i < seasonStarts.length; i++) {
+                long from = Math.max(seasonStarts[i], fromDay) - fromDay;
+                long to = Math.min(seasonEnds[i] + 1, fromDay + length) - fromDay;
+                if (from < to) {
+                    delta[(int) from] += seasonBps[i];
+                    delta[(int) to] -= seasonBps[i];
+                }
+            }
+            TypeTable table = new TypeTable(new long[length + 1], seasonStarts, seasonEnds, seasonBps, weekendBp,
+                    longMinDays, longBps);
+            long season = 0;
+            for (int i = 0; i < length; i++) {
+                season += delta[i];
+                long bp = BP + season + (isWeekend(fromDay + i) ? weekendBp : 0);
+                table.prefixBp[i + 1] = table.prefixBp[i] + Math.max(0, bp);
+            }
+            return table;
+        }
+
+        /**
+         * Tổng hệ số của days ngày tính từ epochDay
+         */
+        long sumBp(long epochDay, int days, long fromDay) {
+            long offset = epochDay - fromDay;
+            if (offset >= 0 && offset + days < prefixBp.length) {
+                return prefixBp[(int) (offset + days)] - prefixBp[(int) offset];
+            }
+            long sum = 0;
+            for (long day = epochDay; day < epochDay + days; day++) {
+                sum += dayBp(day);
+            }
+            return sum;
+        }
+
+        long dayBp(long epochDay) {
+            long bp = BP + (isWeekend(epochDay) ? weekendBp : 0);
+            for (int i = 0; i < seasonStarts.length; i++) {
+                if (seasonStarts[i] <= epochDay && epochDay <= seasonEnds[i]) {
+                    bp += seasonBps[i];
+                }
+            }
+            return Math.max(0, bp);
+        }
+
+        int longRentalBp(int days) {
+            for (int i = 0; i < longMinDays.length; i++) {
+                if (longMinDays[i] <= days) {
+                    return longBps[i];
+                }
+            }
+            return 0;
+        }
+
+        private static boolean isWeekend(long epochDay) {
+            // 1970-01-01 là thứ Năm
+            DayOfWeek day = DayOfWeek.THURSDAY.plus(Math.floorMod(epochDay, 7));
+            return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+        }
+    }
+}
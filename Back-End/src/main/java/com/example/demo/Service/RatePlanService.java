@@ -0,0 +1,88 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.RatePlanRequest;
+import com.example.demo.Entity.RatePlan;
+import com.example.demo.Repository.DataVersionJdbcRepository;
+import com.example.demo.Repository.RatePlanRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional
+public class RatePlanService {
+
+    @Autowired
+    private RatePlanRepository ratePlanRepository;
+
+    @Autowired
+    private DataVersionJdbcRepository dataVersionRepository;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Transactional(readOnly = true)
+    public List<RatePlan> listRatePlans() {
+        return ratePlanRepository.findAll();
+    }
+
+    public RatePlan createRatePlan(RatePlanRequest req) {
+        RatePlan plan = new RatePlan();
+        mapRequestToEntity(req, plan);
+        RatePlan saved = ratePlanRepository.save(plan);
+        ratePlansChanged();
+        return saved;
+    }
+
+    public RatePlan updateRatePlan(Long id, RatePlanRequest req) {
+        RatePlan plan = ratePlanRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Rate plan không tồn tại!"));
+        mapRequestToEntity(req, plan);
+        RatePlan saved = ratePlanRepository.save(plan);
+        ratePlansChanged();
+        return saved;
+    }
+
+    public void deleteRatePlan(Long id) {
+        RatePlan plan = ratePlanRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Rate plan không tồn tại!"));
+        ratePlanRepository.delete(plan);
+        ratePlansChanged();
+    }
+
+    /**
+     * Tăng version cùng transaction (node khác poll để biên dịch lại), node hiện tại biên dịch ngay sau commit
+     */
+    private void ratePlansChanged() {
+        dataVersionRepository.bump(DataVersionJdbcRepository.RATE_PLANS);
+        pricingEngine.recompileAfterCommit();
+    }
+
+    private void mapRequestToEntity(RatePlanRequest req, RatePlan plan) {
+        switch (req.getKind()) {
+            case SEASONAL -> {
+                if (req.getStartDate() == null || req.getEndDate() == null || req.getEndDate().isBefore(req.getStartDate())) {
+                    throw new RuntimeException("Rate plan theo mùa cần startDate <= endDate");
+                }
+            }
+            case LONG_RENTAL -> {
+                if (req.getMinDays() == null) {
+                    throw new RuntimeException("Rate plan thuê dài ngày cần minDays");
+                }
+            }
+            case WEEKEND -> {
+                // Áp cho thứ Bảy và Chủ nhật, không cần tham số thêm
+            }
+        }
+        plan.setName(req.getName());
+        plan.setVehicleType(req.getVehicleType());
+        plan.setKind(req.getKind());
+        plan.setStartDate(req.getKind() == RatePlan.Kind.SEASONAL ? req.getStartDate() : null);
+        plan.setEndDate(req.getKind() == RatePlan.Kind.SEASONAL ? req.getEndDate() : null);
+        plan.setMinDays(req.getKind() == RatePlan.Kind.LONG_RENTAL ? req.getMinDays() : null);
+        plan.setAdjustmentBp(req.getAdjustmentBp());
+        plan.setActive(req.getActive() == null || req.getActive());
+    }
+}
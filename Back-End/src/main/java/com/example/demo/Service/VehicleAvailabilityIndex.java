@@ -0,0 +1,312 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.Booking;
+import com.example.demo.Repository.BookingOutboxJdbcRepository;
+import com.example.demo.Repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index in-memory các khoảng thời gian PENDING/CONFIRMED/ACTIVE của từng xe.
+ * Mỗi xe giữ một snapshot bất biến (mảng đã sort theo startAt), được thay thế
+ * copy-on-write khi BookingService đổi trạng thái booking.
+ * Index theo từng node: đọc tiếp booking_outbox để nhận thay đổi của node khác, và dựng lại định kỳ
+ * để bù các event commit muộn hơn lúc được đọc.
+ */
+@Component
+public class VehicleAvailabilityIndex {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingOutboxJdbcRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${booking.outbox.settle-ms:2000}")
+    private long settleMillis;
+
+    @Value("${availability.poll-batch-size:500}")
+    private int pollBatchSize;
+
+    private final ConcurrentHashMap<Long, VehicleIntervals> byVehicle = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded = false;
+
+    // Id event outbox cuối cùng đã áp dụng
+    private volatile long lastEventId;
+
+    // Khác null khi đang dựng lại: thay đổi áp dụng trong lúc đọc database được ghi lại để áp lại sau khi thay index
+    private List<Change> changesDuringLoad;
+
+    private final Object changeLock = new Object();
+
+    /**
+     * Dựng lại toàn bộ index từ database: khi ứng dụng khởi động và định kỳ
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${availability.refresh-ms:600000}",
+            initialDelayString = "${availability.refresh-ms:600000}")
+    public void load() {
+        synchronized (changeLock) {
+            changesDuringLoad = new ArrayList<>();
+        }
+        Map<Long, List<BookingRepository.BookingInterval>> grouped = new HashMap<>();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        // Id outbox đọc trước các khoảng: event sau đó đọc tiếp được, áp lại event đã có trong dữ liệu là vô hại
+        long fromEventId;
+        try {
+            fromEventId = tx.execute(status -> {
+                long maxId = outboxRepository.maxId();
+                for (BookingRepository.BookingInterval interval : bookingRepository.findActiveIntervals()) {
+                    grouped.computeIfAbsent(interval.getVehicleId(), k -> new ArrayList<>()).add(interval);
+                }
+                return maxId;
+            });
+        } catch (RuntimeException e) {
+            synchronized (changeLock) {
+                changesDuringLoad = null;
+            }
+            throw e;
+        }
+
+        Map<Long, VehicleIntervals> fresh = new HashMap<>();
+        grouped.forEach((vehicleId, intervals) -> {
+            int n = intervals.size();
+            long[] ids = new long[n];
+            long[] starts = new long[n];
+            long[] ends = new long[n];
+            for (int i = 0; i < n; i++) {
+                BookingRepository.BookingInterval interval = intervals.get(i);
+                ids[i] = interval.getId();
+                starts[i] = toKey(interval.getStartAt());
+                ends[i] = toKey(interval.getEndAt());
+            }
+            fresh.put(vehicleId, VehicleIntervals.of(ids, starts, ends));
+        });
+
+        synchronized (changeLock) {
+            byVehicle.keySet().retainAll(fresh.keySet());
+            byVehicle.putAll(fresh);
+            // Commit xong trong lúc đọc nhưng dữ liệu đọc có thể chưa thấy: áp lại lên index mới
+            changesDuringLoad.forEach(this::applyTo);
+            changesDuringLoad = null;
+            lastEventId = Math.max(lastEventId, fromEventId);
+        }
+        loaded = true;
+    }
+
+    /**
+     * Nhận thay đổi từ node khác: áp các event outbox mới (đã qua settle-ms) theo thứ tự id
+     */
+    @Scheduled(fixedDelayString = "${availability.poll-ms:2000}")
+    public void pollOutbox() {
+        if (!loaded) {
+            return;
+        }
+        List<BookingOutboxJdbcRepository.OutboxEvent> events;
+        do {
+            events = outboxRepository.findAfter(lastEventId, settleMillis, pollBatchSize);
+            for (BookingOutboxJdbcRepository.OutboxEvent event : events) {
+                apply(new Change(event.bookingId(), event.vehicleId(), toKey(event.startAt()), toKey(event.endAt()),
+                        event.to().blocksVehicle()));
+            }
+            if (!events.isEmpty()) {
+                lastEventId = events.get(events.size() - 1).id();
+            }
+        } while (events.size() == pollBatchSize);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Xe còn trống trong [startAt, endAt) hay không
+     */
+    public boolean isAvailable(Long vehicleId, LocalDateTime startAt, LocalDateTime endAt) {
+        VehicleIntervals intervals = byVehicle.get(vehicleId);
+        return intervals == null || !intervals.overlaps(toKey(startAt), toKey(endAt));
+    }
+
+    /**
+     * Snapshot bất biến hiện tại của một xe (null nếu xe chưa từng có booking giữ chỗ).
+     * Mỗi thay đổi tạo snapshot mới nên có thể dùng làm khóa cache theo identity.
+     */
+    VehicleIntervals snapshot(Long vehicleId) {
+        return byVehicle.get(vehicleId);
+    }
+
+    /**
+     * Ghi nhận thay đổi của booking, áp dụng sau khi transaction hiện tại commit
+     */
+    public void onBookingChanged(Booking booking) {
+        onBookingChanged(booking.getId(), booking.getVehicle().getId(),
+                booking.getStartAt(), booking.getEndAt(), booking.getStatus());
+    }
+
+    public void onBookingChanged(Long bookingId, Long vehicleId, LocalDateTime startAt, LocalDateTime endAt,
+                                 Booking.BookingStatus status) {
+        Change change = new Change(bookingId, vehicleId, toKey(startAt), toKey(endAt), status.blocksVehicle());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Change change) {
+        synchronized (changeLock) {
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+            applyTo(change);
+        }
+    }
+
+    private void applyTo(Change change) {
+        if (change.blocks()) {
+            byVehicle.compute(change.vehicleId(), (id, current) -> (current == null ? VehicleIntervals.EMPTY : current)
+                    .with(change.bookingId(), change.start(), change.end()));
+        } else {
+            byVehicle.computeIfPresent(change.vehicleId(), (id, current) -> current.without(change.bookingId()));
+        }
+    }
+
+    /**
+     * Một lần đổi trạng thái booking: blocks = trạng thái mới còn giữ xe
+     */
+    private record Change(long bookingId, long vehicleId, long start, long end, boolean blocks) {
+    }
+
+    static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Các khoảng của một xe, sort theo start; maxEnds[i] = max(ends[0..i])
+     * để kiểm tra overlap bằng một lần binary search kể cả khi dữ liệu cũ bị chồng lấn.
+     */
+    static final class VehicleIntervals {
+
+        static final VehicleIntervals EMPTY = new VehicleIntervals(new long[0], new long[0], new long[0], new long[0]);
+
+        final long[] ids;
+        final long[] starts;
+        final long[] ends;
+        final long[] maxEnds;
+
+        private VehicleIntervals(long[] ids, long[] starts, long[] ends, long[] maxEnds) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = maxEnds;
+        }
+
+        static VehicleIntervals of(long[] ids, long[] starts, long[] ends) {
+            int n = ids.length;
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+
+            long[] sortedIds = new long[n];
+            long[] sortedStarts = new long[n];
+            long[] sortedEnds = new long[n];
+            long[] maxEnds = new long[n];
+            for (int i = 0; i < n; i++) {
+                int j = order[i];
+                sortedIds[i] = ids[j];
+                sortedStarts[i] = starts[j];
+                sortedEnds[i] = ends[j];
+                maxEnds[i] = i == 0 ? ends[j] : Math.max(maxEnds[i - 1], ends[j]);
+            }
+            return new VehicleIntervals(sortedIds, sortedStarts, sortedEnds, maxEnds);
+        }
+
+        boolean overlaps(long start, long end) {
+            // Vị trí cuối cùng có starts[i] < end
+            int lo = 0, hi = starts.length - 1, last = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < end) {
+                    last = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return last >= 0 && maxEnds[last] > start;
+        }
+
+        VehicleIntervals with(long bookingId, long start, long end) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == bookingId && starts[i] == start && ends[i] == end) {
+                    // Đổi trạng thái nhưng vẫn giữ xe (confirm/activate) -> giữ nguyên snapshot
+                    return this;
+                }
+            }
+            VehicleIntervals base = without(bookingId);
+            int n = base.ids.length;
+            long[] ids = Arrays.copyOf(base.ids, n + 1);
+            long[] starts = Arrays.copyOf(base.starts, n + 1);
+            long[] ends = Arrays.copyOf(base.ends, n + 1);
+            ids[n] = bookingId;
+            starts[n] = start;
+            ends[n] = end;
+            return of(ids, starts, ends);
+        }
+
+        VehicleIntervals without(long bookingId) {
+            int pos = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == bookingId) {
+                    pos = i;
+                    break;
+                }
+            }
+            if (pos < 0) {
+                return this;
+            }
+            long[] newIds = new long[ids.length - 1];
+            long[] newStarts = new long[ids.length - 1];
+            long[] newEnds = new long[ids.length - 1];
+            for (int i = 0, k = 0; i < ids.length; i++) {
+                if (i == pos) {
+                    continue;
+                }
+                newIds[k] = ids[i];
+                newStarts[k] = starts[i];
+                newEnds[k] = ends[i];
+                k++;
+            }
+            return of(newIds, newStarts, newEnds);
+        }
+    }
+}
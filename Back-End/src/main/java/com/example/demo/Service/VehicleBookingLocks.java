@@ -0,0 +1,81 @@
+package com.example.demo.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bảng lock phân dải (striped) theo vehicleId: booking của cùng một xe được tuần tự hóa
+ * trong node, booking của các xe khác nhau chạy song song.
+ * Lock được giữ tới khi transaction hiện tại kết thúc (commit/rollback).
+ */
+@Component
+public class VehicleBookingLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+
+    public VehicleBookingLocks(@Value("${booking.lock.stripes:256}") int stripeCount,
+                               @Value("${booking.lock.timeout-ms:10000}") long timeoutMillis) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Khóa stripe của một xe cho tới hết transaction hiện tại
+     */
+    public void lockUntilCompletion(Long vehicleId) {
+        lockStripeUntilCompletion(stripeOf(vehicleId));
+    }
+
+    /**
+     * Khóa stripe của nhiều xe theo thứ tự stripe tăng dần (tránh deadlock)
+     */
+    public void lockAllUntilCompletion(Collection<Long> vehicleIds) {
+        TreeSet<Integer> ordered = new TreeSet<>();
+        for (Long vehicleId : vehicleIds) {
+            ordered.add(stripeOf(vehicleId));
+        }
+        for (Integer stripe : ordered) {
+            lockStripeUntilCompletion(stripe);
+        }
+    }
+
+    private void lockStripeUntilCompletion(int stripe) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("VehicleBookingLocks phải được dùng bên trong transaction");
+        }
+        ReentrantLock lock = stripes[stripe];
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Hệ thống đang bận, vui lòng thử lại");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Hệ thống đang bận, vui lòng thử lại");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private int stripeOf(Long vehicleId) {
+        int h = vehicleId.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,620 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.DataVersionJdbcRepository;
+import com.example.demo.Repository.VehicleCatalogChangeJdbcRepository;
+import com.example.demo.Repository.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Snapshot bất biến của catalog xe cho browse/search, không chạm MySQL hay Hibernate.
+ * Version của snapshot là version "vehicle_catalog" trong data_versions (ETag của các endpoint xe): mọi ghi vào xe
+ * và mọi lần booking đổi trạng thái xe tăng version đó và ghi các xe đã đổi vào vehicle_catalog_changes trong cùng
+ * transaction, nên hai node cùng version phục vụ cùng dữ liệu và ETag khớp giữa các node.
+ * Dữ liệu lọc lưu theo cột (mảng primitive: giá, ordinal loại/trạng thái) kèm hoán vị sort theo giá
+ * để lọc khoảng giá bằng binary search. Mỗi thay đổi tạo snapshot mới rồi thay bằng một phép gán volatile,
+ * nên search không khóa. Làm mới do một luồng nền duy nhất (gộp các yêu cầu dồn lại): chỉ đọc lại các xe
+ * trong nhật ký thay đổi kể từ version của snapshot, transaction ghi không bao giờ chờ việc làm mới.
+ */
+@Component
+public class VehicleCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleCatalog.class);
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private DataVersionJdbcRepository dataVersionRepository;
+
+    @Autowired
+    private VehicleCatalogChangeJdbcRepository changeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Từ ngưỡng này search quét song song trên ForkJoinPool chung
+    @Value("${catalog.parallel-threshold:50000}")
+    private int parallelThreshold;
+
+    @Value("${catalog.change-retention-hours:24}")
+    private long changeRetentionHours;
+
+    private volatile Snapshot snapshot;
+
+    // Một luồng làm mới; refreshQueued gộp mọi yêu cầu tới trước khi lần làm mới kế tiếp bắt đầu thành một
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "vehicle-catalog-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Version dùng chung của snapshot hiện tại, null khi chưa nạp.
+     * Đọc trước khi đọc dữ liệu: response có thể mới hơn tag, không bao giờ cũ hơn
+     */
+    public String versionTag() {
+        Snapshot current = snapshot;
+        return current == null ? null : Long.toString(current.version);
+    }
+
+    /**
+     * Dựng lại toàn bộ từ database: khi khởi động và định kỳ (lưới an toàn), hoặc khi nhật ký thay đổi
+     * không còn đủ để vá. Version và dữ liệu đọc trong cùng một transaction (cùng snapshot MVCC) nên luôn khớp nhau.
+     * Không gọi từ luồng đang giữ connection (afterCommit)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${catalog.refresh-ms:300000}", initialDelayString = "${catalog.refresh-ms:300000}")
+    public synchronized void rebuild() {
+        // Đọc trong lock để một lần vá đến sau không bị snapshot đọc trước đó ghi đè
+        snapshot = readTransaction().execute(status ->
+                load(dataVersionRepository.current(DataVersionJdbcRepository.VEHICLE_CATALOG)));
+    }
+
+    /**
+     * Nhận ghi từ node khác: mỗi chu kỳ xếp một lần làm mới (không đổi gì nếu version dùng chung chưa đổi)
+     */
+    @Scheduled(fixedDelayString = "${catalog.version-poll-ms:2000}")
+    public void pollVersion() {
+        requestRefresh();
+    }
+
+    /**
+     * Gọi trong transaction ghi vào xe, sau khi dòng vehicles đã được flush: tăng version dùng chung,
+     * ghi xe vào nhật ký thay đổi và làm mới sau khi commit
+     */
+    public void onVehicleChanged(Long vehicleId) {
+        recordChange(List.of(vehicleId), false);
+    }
+
+    /**
+     * Gọi trong transaction đổi trạng thái xe, sau cùng (các dòng vehicles đã được ghi/flush): mọi đường ghi
+     * khóa vehicles trước rồi mới khóa dòng version, nên không deadlock với nhau. Sau commit chỉ đọc lại
+     * trạng thái các xe đó và thay cột trạng thái (không dựng lại cả catalog)
+     */
+    public void onStatusChanged(Collection<Long> vehicleIds) {
+        if (!vehicleIds.isEmpty()) {
+            recordChange(vehicleIds, true);
+        }
+    }
+
+    private void recordChange(Collection<Long> vehicleIds, boolean statusOnly) {
+        long version = dataVersionRepository.bumpAndGet(DataVersionJdbcRepository.VEHICLE_CATALOG);
+        changeRepository.record(version, vehicleIds, statusOnly);
+        afterCommit(this::requestRefresh);
+    }
+
+    /**
+     * Xếp một lần làm mới cho luồng nền, không chạm database: gọi được từ afterCommit
+     */
+    public void requestRefresh() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                try {
+                    refresh();
+                } catch (RuntimeException e) {
+                    // Lần poll kế tiếp thử lại
+                    log.warn("Làm mới catalog xe thất bại", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Đưa snapshot lên version dùng chung: đọc nhật ký thay đổi kể từ version của snapshot, đọc lại đầy đủ các xe
+     * bị ghi và chỉ trạng thái của các xe đổi trạng thái. Thiếu version trong nhật ký (đã dọn) thì dựng lại toàn bộ
+     */
+    synchronized void refresh() {
+        refreshQueued.set(false);
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            return;
+        }
+        snapshot = readTransaction().execute(status -> {
+            long version = dataVersionRepository.current(DataVersionJdbcRepository.VEHICLE_CATALOG);
+            if (version == current.version) {
+                return current;
+            }
+            List<VehicleCatalogChangeJdbcRepository.Change> changes = changeRepository.findBetween(current.version, version);
+            long versionsLogged = changes.stream().mapToLong(VehicleCatalogChangeJdbcRepository.Change::version).distinct().count();
+            if (versionsLogged != version - current.version) {
+                return load(version);
+            }
+            Set<Long> reloaded = new HashSet<>();
+            Set<Long> statusOnly = new HashSet<>();
+            for (VehicleCatalogChangeJdbcRepository.Change change : changes) {
+                (change.statusOnly() ? statusOnly : reloaded).add(change.vehicleId());
+            }
+            statusOnly.removeAll(reloaded);
+
+            Snapshot next = current;
+            if (!reloaded.isEmpty()) {
+                next = current.replacing(reloaded,
+                        vehicleRepository.findAllWithPhotosByIdIn(reloaded).stream().map(Entry::of).toList(), version);
+            }
+            Map<Long, Vehicle.VehicleStatus> statuses = new HashMap<>();
+            if (!statusOnly.isEmpty()) {
+                for (VehicleRepository.VehicleStatusView view : vehicleRepository.findStatusesByIdIn(statusOnly)) {
+                    statuses.put(view.getId(), view.getStatus());
+                }
+            }
+            return next.withStatuses(statuses, version);
+        });
+    }
+
+    private Snapshot load(long version) {
+        return Snapshot.of(vehicleRepository.findAllWithPhotos().stream().map(Entry::of).toList(), version);
+    }
+
+    /**
+     * Node nào cũng dọn được (xóa idempotent); node tụt xa hơn thời gian giữ sẽ dựng lại toàn bộ
+     */
+    @Scheduled(fixedDelayString = "${catalog.change-purge-ms:3600000}")
+    public void purgeChanges() {
+        changeRepository.purgeBefore(LocalDateTime.now().minusHours(changeRetentionHours));
+    }
+
+    /**
+     * Transaction đọc chỉ đọc: version, nhật ký và dữ liệu cùng một snapshot MVCC
+     */
+    private TransactionTemplate readTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx;
+    }
+
+    /**
+     * Xe theo id, null nếu không có trong snapshot
+     */
+    public Entry find(Long id) {
+        Snapshot s = snapshot;
+        int i = Arrays.binarySearch(s.ids, id);
+        return i >= 0 ? s.entries[i] : null;
+    }
+
+    /**
+     * Các xe có id thỏa include, theo thứ tự id
+     */
+    public List<Entry> findAll(LongPredicate include) {
+        Snapshot s = snapshot;
+        int[] matched = scan(0, s.ids.length, i -> include.test(s.ids[i]));
+        List<Entry> items = new ArrayList<>(matched.length);
+        for (int i : matched) {
+            items.add(s.entries[i]);
+        }
+        return items;
+    }
+
+    /**
+     * Cùng ngữ nghĩa với VehicleSpecifications.search; sort theo id | dailyPrice | createdAt | title (kèm id).
+     * ranked (có thể null) là kết quả full-text theo thứ tự liên quan: chỉ giữ các xe trong đó,
+     * và khi pageable không sort thì giữ nguyên thứ tự liên quan
+     */
+    public Page<Entry> search(Vehicle.VehicleType type, BigDecimal minPrice, BigDecimal maxPrice,
+                             Vehicle.VehicleStatus status, String text, long[] ranked, Pageable pageable) {
+        Snapshot s = snapshot;
+        long min = minPrice == null ? Long.MIN_VALUE : toMinor(minPrice, RoundingMode.CEILING);
+        long max = maxPrice == null ? Long.MAX_VALUE : toMinor(maxPrice, RoundingMode.FLOOR);
+        int typeOrd = type == null ? -1 : type.ordinal();
+        int statusOrd = status == null ? -1 : status.ordinal();
+        String needle = text == null || text.isBlank() ? null : text.trim().toLowerCase(Locale.ROOT);
+
+        IntPredicate match = i -> (typeOrd < 0 || s.types[i] == typeOrd)
+                && (statusOrd < 0 || s.statuses[i] == statusOrd)
+                && (needle == null || s.texts[i].contains(needle));
+
+        Sort.Order order = pageable.getSort().stream().findFirst()
+                .orElse(ranked == null ? Sort.Order.asc("id") : null);
+        int[] matched;
+        if (ranked != null) {
+            matched = scan(0, ranked.length, k -> {
+                int i = Arrays.binarySearch(s.ids, ranked[k]);
+                return i >= 0 && s.priceMinor[i] >= min && s.priceMinor[i] <= max && match.test(i);
+            });
+            for (int k = 0; k < matched.length; k++) {
+                matched[k] = Arrays.binarySearch(s.ids, ranked[matched[k]]);
+            }
+            if (order != null) {
+                matched = sorted(s, matched, order.getProperty());
+            }
+        } else if (order.getProperty().equals("dailyPrice")) {
+            // Khoảng giá là một đoạn liên tiếp của hoán vị byPrice
+            int from = lowerBound(s.sortedPrices, min);
+            int to = upperBound(s.sortedPrices, max);
+            matched = scan(from, to, p -> match.test(s.byPrice[p]));
+            for (int k = 0; k < matched.length; k++) {
+                matched[k] = s.byPrice[matched[k]];
+            }
+        } else {
+            matched = scan(0, s.ids.length, i -> s.priceMinor[i] >= min && s.priceMinor[i] <= max && match.test(i));
+            if (!order.getProperty().equals("id")) {
+                matched = sorted(s, matched, order.getProperty());
+            }
+        }
+
+        boolean desc = order != null && order.isDescending();
+        int total = matched.length;
+        int offset = (int) Math.min(pageable.getOffset(), total);
+        int end = Math.min(offset + pageable.getPageSize(), total);
+        Entry[] items = new Entry[end - offset];
+        for (int k = offset; k < end; k++) {
+            items[k - offset] = s.entries[matched[desc ? total - 1 - k : k]];
+        }
+        return new PageImpl<>(List.of(items), pageable, total);
+    }
+
+    /**
+     * Keyset pagination: tối đa limit xe đứng sau after theo (property, id), after null là trang đầu.
+     * property: id | dailyPrice | createdAt. Chỉ duyệt từ vị trí cursor tới khi đủ limit xe khớp bộ lọc.
+     * ranked (có thể null): chỉ giữ các xe có trong kết quả full-text
+     */
+    public List<Entry> searchAfter(Vehicle.VehicleType type, BigDecimal minPrice, BigDecimal maxPrice,
+                                   Vehicle.VehicleStatus status, String text, long[] ranked,
+                                   String property, boolean descending, VehicleKeyset after, int limit) {
+        Snapshot s = snapshot;
+        long min = minPrice == null ? Long.MIN_VALUE : toMinor(minPrice, RoundingMode.CEILING);
+        long max = maxPrice == null ? Long.MAX_VALUE : toMinor(maxPrice, RoundingMode.FLOOR);
+        int typeOrd = type == null ? -1 : type.ordinal();
+        int statusOrd = status == null ? -1 : status.ordinal();
+        String needle = text == null || text.isBlank() ? null : text.trim().toLowerCase(Locale.ROOT);
+        boolean[] allowed = ranked == null ? null : positions(s, ranked);
+        IntPredicate match = i -> s.priceMinor[i] >= min && s.priceMinor[i] <= max
+                && (typeOrd < 0 || s.types[i] == typeOrd)
+                && (statusOrd < 0 || s.statuses[i] == statusOrd)
+                && (needle == null || s.texts[i].contains(needle))
+                && (allowed == null || allowed[i]);
+
+        // order[k] là vị trí thứ k theo (khóa, id) tăng dần; keys[i] là khóa sort của vị trí i
+        int[] order;
+        long[] keys;
+        int from = 0;
+        int to = s.ids.length;
+        switch (property) {
+            case "dailyPrice" -> {
+                order = s.byPrice;
+                keys = s.priceMinor;
+                from = lowerBound(s.sortedPrices, min);
+                to = upperBound(s.sortedPrices, max);
+            }
+            case "createdAt" -> {
+                order = s.byCreatedAt;
+                keys = s.createdAt;
+            }
+            default -> {
+                order = null;
+                keys = s.ids;
+            }
+        }
+        if (after != null) {
+            // Tăng dần: bắt đầu sau các xe có (khóa, id) <= cursor; giảm dần: chỉ còn các xe có (khóa, id) < cursor
+            if (descending) {
+                to = Math.min(to, countBefore(s, order, keys, after.sortKey(), after.id(), false));
+            } else {
+                from = Math.max(from, countBefore(s, order, keys, after.sortKey(), after.id(), true));
+            }
+        }
+
+        List<Entry> items = new ArrayList<>(limit);
+        for (int n = 0; n < to - from && items.size() < limit; n++) {
+            int k = descending ? to - 1 - n : from + n;
+            int i = order == null ? k : order[k];
+            if (match.test(i)) {
+                items.add(s.entries[i]);
+            }
+        }
+        return items;
+    }
+
+    private static boolean[] positions(Snapshot s, long[] ids) {
+        boolean[] present = new boolean[s.ids.length];
+        for (long id : ids) {
+            int i = Arrays.binarySearch(s.ids, id);
+            if (i >= 0) {
+                present[i] = true;
+            }
+        }
+        return present;
+    }
+
+    /**
+     * Số vị trí (theo order, null = theo id) có (khóa, id) nhỏ hơn (hoặc bằng nếu inclusive) (key, id)
+     */
+    private static int countBefore(Snapshot s, int[] order, long[] keys, long key, long id, boolean inclusive) {
+        int lo = 0;
+        int hi = s.ids.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int i = order == null ? mid : order[mid];
+            boolean before = keys[i] < key || (keys[i] == key && (inclusive ? s.ids[i] <= id : s.ids[i] < id));
+            if (before) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int[] scan(int from, int to, IntPredicate predicate) {
+        IntStream range = IntStream.range(from, to);
+        if (to - from >= parallelThreshold) {
+            range = range.parallel();
+        }
+        return range.filter(predicate).toArray();
+    }
+
+    /**
+     * Sort tăng dần các vị trí theo property (vị trí đã theo thứ tự id nên id là tie-break)
+     */
+    private static int[] sorted(Snapshot s, int[] indexes, String property) {
+        Comparator<Integer> comparator = switch (property) {
+            case "dailyPrice" -> Comparator.comparingLong((Integer i) -> s.priceMinor[i]);
+            case "createdAt" -> Comparator.comparingLong((Integer i) -> s.createdAt[i]);
+            case "title" -> Comparator.comparing((Integer i) -> s.entries[i].title(),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            default -> null;
+        };
+        if (comparator == null) {
+            // sort theo id
+            int[] copy = indexes.clone();
+            Arrays.sort(copy);
+            return copy;
+        }
+        return Arrays.stream(indexes).boxed().sorted(comparator.thenComparingInt(i -> i)).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Giá theo đơn vị nhỏ nhất của cột daily_price (scale 2)
+     */
+    static long toMinor(BigDecimal price, RoundingMode rounding) {
+        return price.setScale(2, rounding).unscaledValue().longValueExact();
+    }
+
+    static long epochMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static int lowerBound(long[] sorted, long key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int upperBound(long[] sorted, long key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * Một xe trong snapshot (bất biến, không phải entity)
+     */
+    public record Entry(Long id, String title, Vehicle.VehicleType vehicleType, String licensePlate,
+                        BigDecimal dailyPrice, String currency, Vehicle.VehicleStatus status, String description,
+                        LocalDateTime createdAt, List<Photo> photos) {
+
+        public static Entry of(Vehicle vehicle) {
+            List<Photo> photos = vehicle.getPhotos() == null ? List.of() : vehicle.getPhotos().stream()
+                    .map(p -> new Photo(p.getId(), p.getUrl(), p.getIsPrimary()))
+                    .toList();
+            return new Entry(vehicle.getId(), vehicle.getTitle(), vehicle.getVehicleType(), vehicle.getLicensePlate(),
+                    vehicle.getDailyPrice(), vehicle.getCurrency(), vehicle.getStatus(), vehicle.getDescription(),
+                    vehicle.getCreatedAt() == null ? null : vehicle.getCreatedAt().toLocalDateTime(), photos);
+        }
+
+        Entry withStatus(Vehicle.VehicleStatus newStatus) {
+            return new Entry(id, title, vehicleType, licensePlate, dailyPrice, currency, newStatus, description,
+                    createdAt, photos);
+        }
+    }
+
+    public record Photo(Long id, String url, Boolean isPrimary) {
+    }
+
+    /**
+     * Các cột song song theo vị trí i (sort theo id); byPrice/sortedPrices và byCreatedAt là hoán vị
+     * theo (giá, id) và (createdAt, id)
+     */
+    static final class Snapshot {
+
+        final Entry[] entries;
+        final long[] ids;
+        final long[] priceMinor;
+        final byte[] types;
+        final byte[] statuses;
+        final long[] createdAt;
+        final String[] texts;
+        final int[] byPrice;
+        final long[] sortedPrices;
+        final int[] byCreatedAt;
+        final long version;
+
+        private Snapshot(Entry[] entries, long[] ids, long[] priceMinor, byte[] types, byte[] statuses,
+                         long[] createdAt, String[] texts, int[] byPrice, long[] sortedPrices, int[] byCreatedAt,
+                         long version) {
+            this.entries = entries;
+            this.ids = ids;
+            this.priceMinor = priceMinor;
+            this.types = types;
+            this.statuses = statuses;
+            this.createdAt = createdAt;
+            this.texts = texts;
+            this.byPrice = byPrice;
+            this.sortedPrices = sortedPrices;
+            this.byCreatedAt = byCreatedAt;
+            this.version = version;
+        }
+
+        static Snapshot of(List<Entry> source, long version) {
+            Entry[] entries = source.stream()
+                    .sorted(Comparator.comparing(Entry::id))
+                    .toArray(Entry[]::new);
+            int n = entries.length;
+            long[] ids = new long[n];
+            long[] priceMinor = new long[n];
+            byte[] types = new byte[n];
+            byte[] statuses = new byte[n];
+            long[] createdAt = new long[n];
+            String[] texts = new String[n];
+            for (int i = 0; i < n; i++) {
+                Entry e = entries[i];
+                ids[i] = e.id();
+                priceMinor[i] = toMinor(e.dailyPrice(), RoundingMode.HALF_UP);
+                types[i] = (byte) e.vehicleType().ordinal();
+                statuses[i] = (byte) e.status().ordinal();
+                createdAt[i] = e.createdAt() == null ? Long.MIN_VALUE : epochMicros(e.createdAt());
+                texts[i] = (nullToEmpty(e.title()) + "\n" + nullToEmpty(e.licensePlate())).toLowerCase(Locale.ROOT);
+            }
+            int[] byPrice = orderBy(priceMinor);
+            long[] sortedPrices = new long[n];
+            for (int k = 0; k < n; k++) {
+                sortedPrices[k] = priceMinor[byPrice[k]];
+            }
+            return new Snapshot(entries, ids, priceMinor, types, statuses, createdAt, texts, byPrice, sortedPrices,
+                    orderBy(createdAt), version);
+        }
+
+        /**
+         * Vị trí đã sort theo id nên sort ổn định theo khóa cho ra thứ tự (khóa, id)
+         */
+        private static int[] orderBy(long[] keys) {
+            return IntStream.range(0, keys.length).boxed()
+                    .sorted(Comparator.comparingLong(i -> keys[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        /**
+         * Snapshot mới với các xe ids thay bằng fresh (xe không còn trong fresh là đã xóa); sắp xếp lại trong bộ nhớ
+         */
+        Snapshot replacing(Set<Long> ids, List<Entry> fresh, long newVersion) {
+            List<Entry> merged = new ArrayList<>(entries.length + fresh.size());
+            for (Entry e : entries) {
+                if (!ids.contains(e.id())) {
+                    merged.add(e);
+                }
+            }
+            merged.addAll(fresh);
+            return of(merged, newVersion);
+        }
+
+        /**
+         * Bản sao chỉ khác cột trạng thái và version (các cột khác dùng chung)
+         */
+        Snapshot withStatuses(Map<Long, Vehicle.VehicleStatus> changes, long newVersion) {
+            Entry[] newEntries = entries.clone();
+            byte[] newStatuses = statuses.clone();
+            boolean changed = false;
+            for (Map.Entry<Long, Vehicle.VehicleStatus> change : changes.entrySet()) {
+                int i = Arrays.binarySearch(ids, change.getKey());
+                if (i >= 0 && newEntries[i].status() != change.getValue()) {
+                    newEntries[i] = newEntries[i].withStatus(change.getValue());
+                    newStatuses[i] = (byte) change.getValue().ordinal();
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                return new Snapshot(entries, ids, priceMinor, types, statuses, createdAt, texts, byPrice, sortedPrices,
+                        byCreatedAt, newVersion);
+            }
+            return new Snapshot(newEntries, ids, priceMinor, types, newStatuses, createdAt, texts, byPrice, sortedPrices,
+                    byCreatedAt, newVersion);
+        }
+
+        private static String nullToEmpty(String value) {
+            return value == null ? "" : value;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.Service;
+
+import com.example.demo.Util.KeysetCursor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Vị trí keyset trong danh sách xe sort theo (property, id): khóa sort và id của xe cuối trang.
+ * Cursor gửi cho client ghi cả sort, nên không dùng lại được với một sort khác.
+ * createdAt null (dữ liệu cũ) đứng trước mọi giá trị khác, như ORDER BY của MySQL
+ */
+public record VehicleKeyset(String property, boolean descending, String value, long id) {
+
+    public static final Set<String> PROPERTIES = Set.of("id", "dailyPrice", "createdAt");
+
+    public static VehicleKeyset after(VehicleCatalog.Entry last, String property, boolean descending) {
+        String value = switch (property) {
+            case "dailyPrice" -> last.dailyPrice().toPlainString();
+            case "createdAt" -> last.createdAt() == null ? "" : last.createdAt().toString();
+            default -> String.valueOf(last.id());
+        };
+        return new VehicleKeyset(property, descending, value, last.id());
+    }
+
+    public static VehicleKeyset decode(String cursor, String property, boolean descending) {
+        String[] keys = KeysetCursor.decode(cursor, 3);
+        if (!keys[0].equals(sort(property, descending))) {
+            throw new RuntimeException("Cursor không khớp với sort hiện tại");
+        }
+        try {
+            VehicleKeyset keyset = new VehicleKeyset(property, descending, keys[1], Long.parseLong(keys[2]));
+            // Parse thử để cursor hỏng bị từ chối ngay
+            keyset.sortKey();
+            return keyset;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Cursor không hợp lệ");
+        }
+    }
+
+    public String encode() {
+        return KeysetCursor.encode(sort(property, descending), value, String.valueOf(id));
+    }
+
+    public BigDecimal price() {
+        return new BigDecimal(value);
+    }
+
+    /**
+     * null nếu xe cuối trang không có createdAt
+     */
+    public Timestamp createdAt() {
+        return value.isEmpty() ? null : Timestamp.valueOf(LocalDateTime.parse(value));
+    }
+
+    /**
+     * Khóa sort dạng long như các cột của VehicleCatalog
+     */
+    long sortKey() {
+        return switch (property) {
+            case "dailyPrice" -> VehicleCatalog.toMinor(price(), RoundingMode.HALF_UP);
+            case "createdAt" -> value.isEmpty() ? Long.MIN_VALUE : VehicleCatalog.epochMicros(LocalDateTime.parse(value));
+            default -> Long.parseLong(value);
+        };
+    }
+
+    private static String sort(String property, boolean descending) {
+        return property + "," + (descending ? "desc" : "asc");
+    }
+}
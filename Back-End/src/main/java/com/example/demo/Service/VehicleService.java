@@ -1,10 +1,16 @@
 package com.example.demo.Service;
 
+import com.example.demo.DTO.CursorPage;
 import com.example.demo.DTO.VehicleRequest;
 import com.example.demo.Entity.Vehicle;
 import com.example.demo.Repository.VehicleRepository;
 import com.example.demo.Repository.BookingRepository;
+import com.example.demo.Repository.VehicleSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,23 +28,49 @@ public class VehicleService {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private VehicleAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private VehicleCatalog catalog;
+
+    @Autowired
+    private VehicleTextIndex textIndex;
+
+    @Autowired
+    private VehicleSuggestIndex suggestIndex;
+
     public Vehicle createVehicle(VehicleRequest req) {
         Vehicle vehicle = new Vehicle();
         mapRequestToEntity(req, vehicle);
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.saveAndFlush(vehicle);
+        textIndex.onVehicleSaved(saved);
+        suggestIndex.onVehicleSaved(saved);
+        catalog.onVehicleChanged(saved.getId());
+        return saved;
     }
 
     public Vehicle updateVehicle(Long id, VehicleRequest req) {
         Vehicle vehicle = vehicleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Vehicle không tồn tại!"));
         mapRequestToEntity(req, vehicle);
-        return vehicleRepository.save(vehicle);
+        // Flush trước khi tăng version catalog: khóa dòng vehicles trước dòng version như mọi đường ghi khác
+        Vehicle saved = vehicleRepository.saveAndFlush(vehicle);
+        textIndex.onVehicleSaved(saved);
+        suggestIndex.onVehicleSaved(saved);
+        // Sau cùng: các index khác đã cập nhật khi version catalog (ETag) tăng
+        catalog.onVehicleChanged(saved.getId());
+        return saved;
     }
 
     public void deleteVehicle(Long id) {
         Vehicle vehicle = vehicleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Vehicle không tồn tại!"));
         vehicleRepository.delete(vehicle);
+        vehicleRepository.flush();
+        textIndex.onVehicleDeleted(id);
+        suggestIndex.onVehicleDeleted(id);
+        catalog.onVehicleChanged(id);
     }
 
     public Vehicle getVehicle(Long id) {
@@ -46,43 +78,159 @@ public class VehicleService {
                 .orElseThrow(() -> new RuntimeException("Vehicle không tồn tại!"));
     }
 
-    public List<Vehicle> listVehicles() {
-        return vehicleRepository.findAllWithPhotos();
+    /**
+     * Chi tiết xe từ snapshot VehicleCatalog; chưa nạp hoặc chưa có xe (ghi từ node khác) thì đọc database
+     */
+    @Transactional(readOnly = true)
+    public VehicleCatalog.Entry getVehicleEntry(Long id) {
+        VehicleCatalog.Entry entry = catalog.isLoaded() ? catalog.find(id) : null;
+        return entry != null ? entry : VehicleCatalog.Entry.of(getVehicle(id));
     }
 
-    public List<Vehicle> searchVehicles(Vehicle.VehicleType type, BigDecimal minPrice, BigDecimal maxPrice) {
-        // Load tất cả vehicles với photos trước
-        List<Vehicle> allVehicles = vehicleRepository.findAllWithPhotosForSearch();
-        
-        // Filter theo criteria
-        return allVehicles.stream()
-                .filter(v -> type == null || v.getVehicleType() == type)
-                .filter(v -> minPrice == null || v.getDailyPrice().compareTo(minPrice) >= 0)
-                .filter(v -> maxPrice == null || v.getDailyPrice().compareTo(maxPrice) <= 0)
-                .toList();
+    /**
+     * Danh sách xe theo trang keyset, sort theo property (id | dailyPrice | createdAt) rồi id
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<VehicleCatalog.Entry> listVehicles(String property, boolean descending, String cursor, int limit) {
+        return searchVehiclesAfter(null, null, null, null, null, null, property, descending, cursor, limit);
     }
 
-    public List<Vehicle> searchByPrice(BigDecimal minPrice, BigDecimal maxPrice) {
-        return searchVehicles(null, minPrice, maxPrice);
+    /**
+     * Keyset pagination trên snapshot VehicleCatalog; trước khi snapshot dựng xong (đang khởi động) thì
+     * query database với điều kiện keyset, photos chỉ load cho các xe của trang trong một query
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<VehicleCatalog.Entry> searchVehiclesAfter(Vehicle.VehicleType type, BigDecimal minPrice,
+                                                                BigDecimal maxPrice, Vehicle.VehicleStatus status,
+                                                                String text, String q, String property,
+                                                                boolean descending, String cursor, int limit) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new RuntimeException("Khoảng giá không hợp lệ: minPrice phải nhỏ hơn hoặc bằng maxPrice");
+        }
+        if (!VehicleKeyset.PROPERTIES.contains(property)) {
+            throw new RuntimeException("Cursor chỉ hỗ trợ sort theo id | dailyPrice | createdAt");
+        }
+        VehicleKeyset after = cursor == null || cursor.isBlank() ? null : VehicleKeyset.decode(cursor, property, descending);
+        boolean fullText = q != null && !q.isBlank();
+
+        // Lấy dư một dòng để biết còn trang sau hay không
+        List<VehicleCatalog.Entry> rows;
+        if (catalog.isLoaded() && (!fullText || textIndex.isLoaded())) {
+            rows = catalog.searchAfter(type, minPrice, maxPrice, status, text, fullText ? textIndex.search(q) : null,
+                    property, descending, after, limit + 1);
+        } else {
+            Specification<Vehicle> spec = VehicleSpecifications.search(type, minPrice, maxPrice, status, text);
+            if (fullText) {
+                spec = spec.and(VehicleSpecifications.textContains(q));
+            }
+            if (after != null) {
+                spec = spec.and(switch (property) {
+                    case "dailyPrice" -> VehicleSpecifications.after(property, after.price(), after.id(), descending);
+                    case "createdAt" -> VehicleSpecifications.after(property, after.createdAt(), after.id(), descending);
+                    default -> VehicleSpecifications.after(property, after.id(), after.id(), descending);
+                });
+            }
+            Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+            Sort sort = property.equals("id") ? Sort.by(direction, "id") : Sort.by(direction, property, "id");
+            List<Vehicle> vehicles = vehicleRepository.findBy(spec, query -> query.sortBy(sort).limit(limit + 1).all());
+            loadPhotos(vehicles);
+            rows = vehicles.stream().map(VehicleCatalog.Entry::of).toList();
+        }
+
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<VehicleCatalog.Entry> items = rows.subList(0, limit);
+        return new CursorPage<>(items, VehicleKeyset.after(items.get(limit - 1), property, descending).encode());
     }
 
-    public List<Vehicle> searchByType(Vehicle.VehicleType type) {
-        return searchVehicles(type, null, null);
+    /**
+     * Lọc và phân trang trên snapshot VehicleCatalog; fallback lọc trong database,
+     * photos chỉ load cho các xe của trang trả về.
+     * q: full-text (VehicleTextIndex) ghép với các bộ lọc; pageable không sort thì xếp theo độ liên quan.
+     * Trong lúc index chưa nạp xong, q chỉ được so khớp LIKE với tên xe/biển số trong database
+     */
+    @Transactional(readOnly = true)
+    public Page<VehicleCatalog.Entry> searchVehicles(Vehicle.VehicleType type, BigDecimal minPrice, BigDecimal maxPrice,
+                                                     Vehicle.VehicleStatus status, String text, String q,
+                                                     Pageable pageable) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new RuntimeException("Khoảng giá không hợp lệ: minPrice phải nhỏ hơn hoặc bằng maxPrice");
+        }
+        boolean fullText = q != null && !q.isBlank();
+        if (catalog.isLoaded() && (!fullText || textIndex.isLoaded())) {
+            return catalog.search(type, minPrice, maxPrice, status, text,
+                    fullText ? textIndex.search(q) : null, pageable);
+        }
+        Specification<Vehicle> spec = VehicleSpecifications.search(type, minPrice, maxPrice, status, text);
+        if (fullText) {
+            spec = spec.and(VehicleSpecifications.textContains(q));
+        }
+        Page<Vehicle> page = vehicleRepository.findAll(spec, pageable);
+        loadPhotos(page.getContent());
+        return page.map(VehicleCatalog.Entry::of);
     }
 
-    public List<Vehicle> searchByDateAvailability(LocalDateTime startAt, LocalDateTime endAt) {
+    public Page<VehicleCatalog.Entry> searchByPrice(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        return searchVehicles(null, minPrice, maxPrice, null, null, null, pageable);
+    }
+
+    public Page<VehicleCatalog.Entry> searchByType(Vehicle.VehicleType type, Pageable pageable) {
+        return searchVehicles(type, null, null, null, null, null, pageable);
+    }
+
+    /**
+     * Xe trống trong [startAt, endAt): lọc snapshot VehicleCatalog bằng VehicleAvailabilityIndex, không đọc database.
+     * Trong lúc khởi động (chưa nạp xong) thì đọc database
+     */
+    @Transactional(readOnly = true)
+    public List<VehicleCatalog.Entry> searchByDateAvailability(LocalDateTime startAt, LocalDateTime endAt) {
+        if (catalog.isLoaded() && availabilityIndex.isLoaded()) {
+            return catalog.findAll(id -> availabilityIndex.isAvailable(id, startAt, endAt));
+        }
         List<Vehicle> all = vehicleRepository.findAllWithPhotos();
+        if (!availabilityIndex.isLoaded()) {
+            return all.stream()
+                    .filter(v -> bookingRepository.findOverlaps(v, startAt, endAt).isEmpty())
+                    .map(VehicleCatalog.Entry::of)
+                    .toList();
+        }
         return all.stream()
-                .filter(v -> bookingRepository.findOverlaps(v, startAt, endAt).isEmpty())
+                .filter(v -> availabilityIndex.isAvailable(v.getId(), startAt, endAt))
+                .map(VehicleCatalog.Entry::of)
                 .toList();
     }
 
+    /**
+     * Tìm xe còn trống bằng một query set-based (NOT EXISTS) thay vì lặp từng xe
+     */
+    @Transactional(readOnly = true)
+    public Page<Vehicle> searchAvailableVehicles(Vehicle.VehicleType type, BigDecimal minPrice, BigDecimal maxPrice,
+                                                 LocalDateTime startAt, LocalDateTime endAt, Pageable pageable) {
+        if (!startAt.isBefore(endAt)) {
+            throw new RuntimeException("Thời gian không hợp lệ: startAt phải trước endAt");
+        }
+        Page<Vehicle> page = bookingRepository.findAvailableVehicles(type, minPrice, maxPrice, startAt, endAt, pageable);
+        loadPhotos(page.getContent());
+        return page;
+    }
+
+    /**
+     * Khởi tạo photos cho các vehicles của trang hiện tại bằng một query (cùng persistence context)
+     */
+    private void loadPhotos(List<Vehicle> vehicles) {
+        if (vehicles.isEmpty()) {
+            return;
+        }
+        vehicleRepository.findAllWithPhotosByIdIn(vehicles.stream().map(Vehicle::getId).toList());
+    }
+
     private void mapRequestToEntity(VehicleRequest req, Vehicle vehicle) {
         vehicle.setTitle(req.getTitle());
         vehicle.setVehicleType(req.getVehicleType());
         vehicle.setLicensePlate(req.getLicensePlate());
         vehicle.setDailyPrice(req.getDailyPrice());
-        vehicle.setCurrency(req.getCurrency());
+        vehicle.setCurrency(PricingEngine.requireCurrency(req.getCurrency()));
         vehicle.setDescription(req.getDescription());
     }
 }
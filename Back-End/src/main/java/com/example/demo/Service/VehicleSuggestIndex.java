@@ -0,0 +1,192 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.VehicleSuggestionResponse;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.VehicleRepository;
+import com.example.demo.Util.VietnameseText;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Gợi ý khi gõ cho tên xe và biển số. Khóa đã bỏ dấu nằm trong các skip list sort theo khóa,
+ * nên một tiền tố là một đoạn liên tiếp: O(log n + k) mỗi lần gõ, đọc không khóa.
+ * Nạp lại toàn bộ khi khởi động và định kỳ, ghi của VehicleService áp dụng từng xe sau khi commit (theo từng node).
+ */
+@Component
+public class VehicleSuggestIndex {
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    private volatile Tables tables;
+
+    public boolean isLoaded() {
+        return tables != null;
+    }
+
+    /**
+     * Dựng lại từ database; synchronized cùng update để thay đổi commit trong lúc nạp được áp lại lên bản mới
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${catalog.refresh-ms:300000}", initialDelayString = "${catalog.refresh-ms:300000}")
+    public synchronized void reload() {
+        Tables fresh = new Tables();
+        for (VehicleRepository.VehicleTextView v : vehicleRepository.findAllTexts()) {
+            fresh.put(v.getId(), v.getTitle(), v.getLicensePlate());
+        }
+        tables = fresh;
+    }
+
+    public void onVehicleSaved(Vehicle vehicle) {
+        long id = vehicle.getId();
+        String title = vehicle.getTitle();
+        String plate = vehicle.getLicensePlate();
+        afterCommit(() -> update(current -> current.put(id, title, plate)));
+    }
+
+    public void onVehicleDeleted(Long id) {
+        afterCommit(() -> update(current -> current.remove(id)));
+    }
+
+    /**
+     * Tối đa limit gợi ý: tên xe bắt đầu bằng prefix, rồi biển số (bỏ qua dấu gạch/chấm),
+     * rồi tên xe có một từ bắt đầu bằng prefix. Trong mỗi nhóm theo thứ tự chữ cái (tên ngắn trước).
+     * Index chưa nạp xong thì trả về rỗng thay vì query database mỗi lần gõ
+     */
+    public List<VehicleSuggestionResponse> suggest(String prefix, int limit) {
+        Tables current = tables;
+        List<String> tokens = VietnameseText.tokens(prefix);
+        if (current == null || tokens.isEmpty()) {
+            return List.of();
+        }
+        int max = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        String titlePrefix = String.join(" ", tokens);
+        List<VehicleSuggestionResponse> out = new ArrayList<>(max);
+        Set<String> seen = new HashSet<>();
+        collect(current.titles, titlePrefix, VehicleSuggestionResponse.Kind.TITLE, max, seen, out);
+        collect(current.plates, String.join("", tokens), VehicleSuggestionResponse.Kind.PLATE, max, seen, out);
+        collect(current.words, titlePrefix, VehicleSuggestionResponse.Kind.TITLE, max, seen, out);
+        return out;
+    }
+
+    private static void collect(ConcurrentSkipListMap<String, Bucket> map, String prefix, VehicleSuggestionResponse.Kind kind,
+                                int max, Set<String> seen, List<VehicleSuggestionResponse> out) {
+        Iterator<Map.Entry<String, Bucket>> it = map.tailMap(prefix, true).entrySet().iterator();
+        while (out.size() < max && it.hasNext()) {
+            Map.Entry<String, Bucket> e = it.next();
+            if (!e.getKey().startsWith(prefix)) {
+                return;
+            }
+            Bucket bucket = e.getValue();
+            int count = bucket.ids.size();
+            // Bucket có thể vừa bị xóa hết xe bởi một lần ghi đang chạy
+            if (count == 0 || !seen.add(kind + "\n" + bucket.display)) {
+                continue;
+            }
+            Long vehicleId = count == 1 ? bucket.ids.stream().findFirst().orElse(null) : null;
+            out.add(new VehicleSuggestionResponse(bucket.display, kind, vehicleId, count));
+        }
+    }
+
+    private synchronized void update(Consumer<Tables> change) {
+        Tables current = tables;
+        if (current != null) {
+            change.accept(current);
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * titles: tên xe đã chuẩn hóa; plates: biển số chỉ còn chữ/số; words: phần tên bắt đầu từ từ thứ hai trở đi,
+     * khóa kèm "\0" + tên đầy đủ để hai xe khác tên không dùng chung bucket.
+     * Ghi tuần tự (qua update/reload), đọc đồng thời
+     */
+    static final class Tables {
+
+        final ConcurrentSkipListMap<String, Bucket> titles = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListMap<String, Bucket> plates = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListMap<String, Bucket> words = new ConcurrentSkipListMap<>();
+        private final Map<Long, List<Key>> keysById = new HashMap<>();
+
+        void put(long id, String title, String plate) {
+            remove(id);
+            List<Key> keys = new ArrayList<>();
+            List<String> titleTokens = VietnameseText.tokens(title);
+            if (!titleTokens.isEmpty()) {
+                String titleKey = String.join(" ", titleTokens);
+                keys.add(new Key(titles, titleKey));
+                for (int i = 1; i < titleTokens.size(); i++) {
+                    keys.add(new Key(words, String.join(" ", titleTokens.subList(i, titleTokens.size())) + "\0" + titleKey));
+                }
+            }
+            List<String> plateTokens = VietnameseText.tokens(plate);
+            if (!plateTokens.isEmpty()) {
+                keys.add(new Key(plates, String.join("", plateTokens)));
+            }
+            for (Key key : keys) {
+                String display = key.map() == plates ? plate.trim() : title.trim();
+                key.map().computeIfAbsent(key.value(), k -> new Bucket(display)).ids.add(id);
+            }
+            keysById.put(id, keys);
+        }
+
+        void remove(long id) {
+            List<Key> keys = keysById.remove(id);
+            if (keys == null) {
+                return;
+            }
+            for (Key key : keys) {
+                key.map().computeIfPresent(key.value(), (k, bucket) -> {
+                    bucket.ids.remove(id);
+                    return bucket.ids.isEmpty() ? null : bucket;
+                });
+            }
+        }
+    }
+
+    private record Key(ConcurrentSkipListMap<String, Bucket> map, String value) {
+    }
+
+    /**
+     * Các xe cùng một khóa; display là dạng gốc (có dấu) của xe đầu tiên
+     */
+    static final class Bucket {
+
+        final String display;
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        Bucket(String display) {
+            this.display = display;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.VehicleRepository;
+import com.example.demo.Util.Bm25Index;
+import com.example.demo.Util.VietnameseText;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Full-text search trên title, description, licensePlate (bỏ dấu tiếng Việt, xếp hạng BM25).
+ * Nạp toàn bộ khi khởi động và định kỳ (nhận ghi từ node khác), ghi của VehicleService áp dụng
+ * từng xe sau khi commit. Index theo từng node, giống VehicleCatalog.
+ */
+@Component
+public class VehicleTextIndex {
+
+    // Một lần xuất hiện trong title nặng bằng hai lần trong description/biển số
+    private static final int TITLE_WEIGHT = 2;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile Bm25Index index;
+
+    // Tăng mỗi lần index thay đổi; ghép vào ETag của search có q
+    private final AtomicLong generation = new AtomicLong();
+
+    // Index nạp riêng từng node nên generation chỉ có nghĩa trong node: ETag kèm id của node để không trùng giữa các node
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    /**
+     * "instance-generation" của index hiện tại
+     */
+    public String generationTag() {
+        return instance + "-" + generation.get();
+    }
+
+    /**
+     * Dựng lại từ database. synchronized cùng với onVehicleSaved/onVehicleDeleted:
+     * thay đổi commit trong lúc đang nạp sẽ được áp lại lên index mới
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${catalog.refresh-ms:300000}", initialDelayString = "${catalog.refresh-ms:300000}")
+    public synchronized void reload() {
+        Bm25Index fresh = new Bm25Index();
+        for (VehicleRepository.VehicleTextView v : vehicleRepository.findAllTexts()) {
+            fresh.put(v.getId(), termFrequencies(v.getTitle(), v.getDescription(), v.getLicensePlate()));
+        }
+        index = fresh;
+        generation.incrementAndGet();
+    }
+
+    public void onVehicleSaved(Vehicle vehicle) {
+        long id = vehicle.getId();
+        Map<String, Integer> terms = termFrequencies(vehicle.getTitle(), vehicle.getDescription(), vehicle.getLicensePlate());
+        afterCommit(() -> update(current -> current.put(id, terms)));
+    }
+
+    public void onVehicleDeleted(Long id) {
+        afterCommit(() -> update(current -> current.remove(id)));
+    }
+
+    /**
+     * Id xe khớp ít nhất một từ của q, xe liên quan nhất trước
+     */
+    public long[] search(String q) {
+        List<String> terms = VietnameseText.tokens(q);
+        Bm25Index current = index;
+        if (terms.isEmpty() || current == null) {
+            return new long[0];
+        }
+        lock.readLock().lock();
+        try {
+            return current.search(terms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private synchronized void update(Consumer<Bm25Index> change) {
+        Bm25Index current = index;
+        if (current == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        generation.incrementAndGet();
+    }
+
+    static Map<String, Integer> termFrequencies(String title, String description, String licensePlate) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : VietnameseText.tokens(title)) {
+            frequencies.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : VietnameseText.tokens(description)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        List<String> plate = VietnameseText.tokens(licensePlate);
+        for (String token : plate) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        if (plate.size() > 1) {
+            // "51A-123.45" tìm được bằng cả "51A12345"
+            frequencies.merge(String.join("", plate), 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
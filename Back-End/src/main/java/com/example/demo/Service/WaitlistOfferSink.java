@@ -0,0 +1,40 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.Booking;
+import com.example.demo.Repository.BookingOutboxJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Nhận event từ outbox: booking đang giữ xe bị hủy hoặc hoàn tất sớm thì mời danh sách chờ vào khoảng vừa trống.
+ * Giao lại (at-least-once) an toàn vì entry đã OFFERED bị bỏ qua.
+ */
+@Component
+public class WaitlistOfferSink implements BookingEventSink {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Override
+    public String name() {
+        return "waitlist";
+    }
+
+    @Override
+    public void handle(List<BookingOutboxJdbcRepository.OutboxEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        for (BookingOutboxJdbcRepository.OutboxEvent event : events) {
+            boolean released = event.from() != null && event.from().blocksVehicle() && !event.to().blocksVehicle();
+            if (!released || !event.endAt().isAfter(now)) {
+                continue;
+            }
+            // Hoàn tất sớm chỉ trả phần còn lại của khoảng đã đặt
+            LocalDateTime from = event.to() == Booking.BookingStatus.COMPLETED && event.occurredAt().isAfter(event.startAt())
+                    ? event.occurredAt() : event.startAt();
+            waitlistService.offerFreedSlot(event.vehicleId(), from, event.endAt());
+        }
+    }
+}
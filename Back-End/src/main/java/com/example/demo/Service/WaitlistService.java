@@ -0,0 +1,137 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.User;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Entity.WaitlistEntry;
+import com.example.demo.Repository.BookingRepository;
+import com.example.demo.Repository.VehicleRepository;
+import com.example.demo.Repository.WaitlistRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Transactional
+public class WaitlistService {
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookingHoldService holdService;
+
+    @Value("${booking.waitlist.max-per-user:10}")
+    private int maxEntriesPerUser;
+
+    /**
+     * User hiện tại chờ xe trong [startAt, endAt) (chỉ khi khoảng đó đang kín)
+     */
+    public WaitlistEntry join(Long vehicleId, LocalDateTime startAt, LocalDateTime endAt) {
+        if (!startAt.isBefore(endAt)) {
+            throw new RuntimeException("Thời gian không hợp lệ: startAt phải trước endAt");
+        }
+        User current = userService.getCurrentUser();
+        if (waitlistRepository.countByUserIdAndStatusAndStartAtAfter(current.getId(), WaitlistEntry.Status.WAITING,
+                LocalDateTime.now()) >= maxEntriesPerUser) {
+            throw new RuntimeException("Bạn đang chờ quá nhiều xe, vui lòng hủy bớt");
+        }
+        Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                .orElseThrow(() -> new RuntimeException("Vehicle không tồn tại!"));
+        if (bookingRepository.findOverlaps(vehicle, startAt, endAt).isEmpty()
+                && !holdService.isHeldByOthers(vehicleId, startAt, endAt, current.getId())) {
+            throw new RuntimeException("Xe đang trống trong khoảng thời gian này, vui lòng đặt xe trực tiếp");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setVehicle(vehicle);
+        entry.setUser(current);
+        entry.setStartAt(startAt);
+        entry.setEndAt(endAt);
+        WaitlistEntry saved = waitlistRepository.save(entry);
+        return saved;
+    }
+
+    /**
+     * Rời danh sách chờ (chủ entry hoặc admin)
+     */
+    public void leave(Long id) {
+        WaitlistEntry entry = waitlistRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Entry không tồn tại!"));
+        User current = userService.getCurrentUser();
+        if (!entry.getUser().getId().equals(current.getId()) && current.getRole() != User.Role.ADMIN) {
+            throw new RuntimeException("Bạn không có quyền hủy entry này");
+        }
+        if (entry.getStatus() != WaitlistEntry.Status.WAITING) {
+            throw new RuntimeException("Chỉ hủy được entry đang chờ");
+        }
+        entry.setStatus(WaitlistEntry.Status.CANCELLED);
+        waitlistRepository.save(entry);
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntry> getMyEntries() {
+        return waitlistRepository.findByUserIdOrderByCreatedAtDesc(userService.getCurrentUser().getId());
+    }
+
+    /**
+     * Khoảng [startAt, endAt) của xe vừa trống: mời các entry đang chờ giao khoảng này theo thứ tự đăng ký,
+     * mỗi entry còn vừa (không trùng booking và hold khác) được giữ chỗ cho khách. Trả về số entry đã mời.
+     * Ứng viên đọc thẳng từ database: sink chạy trên node đang giữ offset outbox,
+     * entry có thể do node khác ghi. Hold lưu trong database cùng transaction với entry OFFERED:
+     * mọi node đều thấy hold, và lô của sink rollback thì hold cũng không còn (giao lại không giữ chỗ hai lần).
+     */
+    public int offerFreedSlot(Long vehicleId, LocalDateTime startAt, LocalDateTime endAt) {
+        int offered = 0;
+        List<WaitlistEntry> candidates =
+                waitlistRepository.findWaitingOverlapping(vehicleId, startAt, endAt, LocalDateTime.now());
+        for (WaitlistEntry entry : candidates) {
+            // Kiểm tra trước để không ném exception qua proxy của BookingHoldService (làm rollback cả lô)
+            Long userId = entry.getUser().getId();
+            if (!bookingRepository.findOverlaps(entry.getVehicle(), entry.getStartAt(), entry.getEndAt()).isEmpty()
+                    || holdService.isHeldByOthers(vehicleId, entry.getStartAt(), entry.getEndAt(), userId)) {
+                continue;
+            }
+            BookingHoldService.Hold hold = holdService.placeHoldFor(userId, vehicleId, entry.getStartAt(), entry.getEndAt());
+            entry.setStatus(WaitlistEntry.Status.OFFERED);
+            entry.setHoldId(hold.getId());
+            entry.setOfferExpiresAt(hold.getExpiresAt());
+            offered++;
+        }
+        return offered;
+    }
+
+    /**
+     * Entry WAITING đã tới giờ bắt đầu không còn mời được: chuyển sang EXPIRED (mọi node chạy được, UPDATE idempotent)
+     */
+    @Scheduled(fixedDelayString = "${booking.waitlist.sweep-ms:600000}")
+    public void expireStartedEntries() {
+        waitlistRepository.expireStartedWaiting(LocalDateTime.now());
+    }
+
+    /**
+     * Hold hết hạn hoặc bị hủy: offer giữ bằng hold đó (nếu có) hết hiệu lực, rồi mời lại khoảng của hold
+     * cho các entry trước đó bị bỏ qua vì hold này
+     */
+    @EventListener
+    public void onHoldEnded(BookingHoldService.HoldEnded event) {
+        BookingHoldService.Hold hold = event.hold();
+        waitlistRepository.findByHoldIdAndStatus(hold.getId(), WaitlistEntry.Status.OFFERED)
+                .ifPresent(entry -> entry.setStatus(WaitlistEntry.Status.EXPIRED));
+        offerFreedSlot(hold.getVehicleId(), hold.getStartAt(), hold.getEndAt());
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.demo.Util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Inverted index xếp hạng BM25 (k1 = 1.2, b = 0.75) trên id kiểu long. Mỗi document chiếm một slot;
+ * postings của một term là các mảng song song (slot, tf). Sửa document = xóa rồi thêm vào slot mới,
+ * slot cũ thành tombstone và được dọn khi số tombstone vượt số document còn sống.
+ * Không thread-safe: caller tự khóa (đọc song song, ghi độc quyền).
+ */
+public class Bm25Index {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_COMPACT_TOMBSTONES = 1024;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private long[] ids = new long[64];
+    private int[] lengths = new int[64];
+    // Các term phân biệt của document ở slot; null = tombstone
+    private String[][] terms = new String[64][];
+    private int slots;
+    private int live;
+    private long totalLength;
+
+    /**
+     * Thêm hoặc thay document id; termFrequencies là tần suất (đã nhân trọng số field) của từng term
+     */
+    public void put(long id, Map<String, Integer> termFrequencies) {
+        remove(id);
+        if (termFrequencies.isEmpty()) {
+            return;
+        }
+        if (slots == ids.length) {
+            int capacity = slots * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            terms = Arrays.copyOf(terms, capacity);
+        }
+        int slot = slots++;
+        int length = 0;
+        for (Map.Entry<String, Integer> e : termFrequencies.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new Postings()).add(slot, e.getValue());
+            length += e.getValue();
+        }
+        ids[slot] = id;
+        lengths[slot] = length;
+        terms[slot] = termFrequencies.keySet().toArray(String[]::new);
+        slotById.put(id, slot);
+        live++;
+        totalLength += length;
+    }
+
+    public void remove(long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        for (String term : terms[slot]) {
+            postings.get(term).documentFrequency--;
+        }
+        terms[slot] = null;
+        live--;
+        totalLength -= lengths[slot];
+        if (slots - live > Math.max(MIN_COMPACT_TOMBSTONES, live)) {
+            compact();
+        }
+    }
+
+    public int size() {
+        return live;
+    }
+
+    /**
+     * Id các document chứa ít nhất một term, sort theo điểm BM25 giảm dần (bằng điểm thì theo thứ tự thêm vào)
+     */
+    public long[] search(Collection<String> queryTerms) {
+        if (live == 0) {
+            return new long[0];
+        }
+        double averageLength = (double) totalLength / live;
+        float[] scores = new float[slots];
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (String term : new LinkedHashSet<>(queryTerms)) {
+            Postings p = postings.get(term);
+            if (p == null || p.documentFrequency == 0) {
+                continue;
+            }
+            double idf = Math.log(1 + (live - p.documentFrequency + 0.5) / (p.documentFrequency + 0.5));
+            for (int k = 0; k < p.size; k++) {
+                int slot = p.slots[k];
+                if (terms[slot] == null) {
+                    continue;
+                }
+                int tf = p.frequencies[k];
+                double norm = K1 * (1 - B + B * lengths[slot] / averageLength);
+                if (scores[slot] == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = slot;
+                }
+                scores[slot] += (float) (idf * tf * (K1 + 1) / (tf + norm));
+            }
+        }
+
+        // Điểm dương nên bit pattern của float giữ thứ tự; 32 bit thấp ưu tiên slot nhỏ khi bằng điểm
+        long[] keys = new long[touchedCount];
+        for (int k = 0; k < touchedCount; k++) {
+            int slot = touched[k];
+            keys[k] = ((long) Float.floatToIntBits(scores[slot]) << 32) | (Integer.MAX_VALUE - slot);
+        }
+        Arrays.sort(keys);
+        long[] ranked = new long[touchedCount];
+        for (int k = 0; k < touchedCount; k++) {
+            ranked[k] = ids[Integer.MAX_VALUE - (int) keys[touchedCount - 1 - k]];
+        }
+        return ranked;
+    }
+
+    /**
+     * Đánh số lại các slot còn sống (giữ thứ tự) và bỏ tombstone khỏi postings
+     */
+    private void compact() {
+        int[] remap = new int[slots];
+        int next = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (terms[slot] != null) {
+                remap[slot] = next;
+                ids[next] = ids[slot];
+                lengths[next] = lengths[slot];
+                terms[next] = terms[slot];
+                slotById.put(ids[next], next);
+                next++;
+            } else {
+                remap[slot] = -1;
+            }
+        }
+        Arrays.fill(terms, next, slots, null);
+        slots = next;
+        postings.values().removeIf(p -> p.documentFrequency == 0);
+        for (Postings p : postings.values()) {
+            p.retain(remap);
+        }
+    }
+
+    private static final class Postings {
+
+        int[] slots = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+        int documentFrequency;
+
+        void add(int slot, int frequency) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            slots[size] = slot;
+            frequencies[size] = frequency;
+            size++;
+            documentFrequency++;
+        }
+
+        void retain(int[] remap) {
+            int kept = 0;
+            for (int k = 0; k < size; k++) {
+                int slot = remap[slots[k]];
+                if (slot >= 0) {
+                    slots[kept] = slot;
+                    frequencies[kept] = frequencies[k];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
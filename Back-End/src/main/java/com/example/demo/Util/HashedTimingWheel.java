@@ -0,0 +1,185 @@
+package com.example.demo.Util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: lên lịch, hủy và hết hạn mỗi timeout đều O(1).
+ * Một thread duy nhất quay bánh xe; các thread khác chỉ đẩy vào hàng đợi lock-free.
+ */
+public class HashedTimingWheel<T> {
+
+    private static final int ST_PENDING = 0;
+    private static final int ST_CANCELLED = 1;
+    private static final int ST_EXPIRED = 2;
+
+    private final long tickNanos;
+    private final Bucket<T>[] wheel;
+    private final int mask;
+    private final Consumer<T> onExpire;
+
+    private final Queue<Timeout<T>> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout<T>> pendingCancels = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService ticker;
+
+    private long tick = 0;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, long tickMillis, int wheelSize, Consumer<T> onExpire) {
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket<>();
+        }
+        this.mask = size - 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.onExpire = onExpire;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lên lịch item hết hạn sau delayMillis
+     */
+    public Timeout<T> schedule(T item, long delayMillis) {
+        Timeout<T> timeout = new Timeout<>(this, item, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+        pendingAdds.add(timeout);
+        return timeout;
+    }
+
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    private void advance() {
+        transferPending();
+        removeCancelled();
+        expire(wheel[(int) (tick & mask)]);
+        tick++;
+    }
+
+    private void transferPending() {
+        long now = System.nanoTime();
+        Timeout<T> timeout;
+        while ((timeout = pendingAdds.poll()) != null) {
+            if (timeout.state.get() != ST_PENDING) {
+                continue;
+            }
+            long remainingTicks = Math.max(0, (timeout.deadlineNanos - now + tickNanos - 1) / tickNanos);
+            timeout.remainingRounds = remainingTicks / wheel.length;
+            wheel[(int) ((tick + remainingTicks) & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout<T> timeout;
+        while ((timeout = pendingCancels.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void expire(Bucket<T> bucket) {
+        Timeout<T> timeout = bucket.head;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            if (timeout.remainingRounds <= 0) {
+                bucket.remove(timeout);
+                if (timeout.state.compareAndSet(ST_PENDING, ST_EXPIRED)) {
+                    try {
+                        onExpire.accept(timeout.item);
+                    } catch (RuntimeException e) {
+                        // Không để một callback lỗi làm dừng bánh xe
+                    }
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Handle của một item đã lên lịch
+     */
+    public static final class Timeout<T> {
+
+        private final HashedTimingWheel<T> owner;
+        private final T item;
+        private final long deadlineNanos;
+        private final AtomicInteger state = new AtomicInteger(ST_PENDING);
+
+        // Chỉ thread quay bánh xe truy cập
+        private long remainingRounds;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(HashedTimingWheel<T> owner, T item, long deadlineNanos) {
+            this.owner = owner;
+            this.item = item;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Hủy timeout; trả về false nếu đã hết hạn hoặc đã bị hủy trước đó
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_PENDING, ST_CANCELLED)) {
+                return false;
+            }
+            owner.pendingCancels.add(this);
+            return true;
+        }
+    }
+
+    /**
+     * Danh sách liên kết đôi intrusive: thêm/xóa O(1)
+     */
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
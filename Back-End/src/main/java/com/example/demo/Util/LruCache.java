@@ -0,0 +1,38 @@
+package com.example.demo.Util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU có giới hạn số phần tử (LinkedHashMap theo thứ tự truy cập), thread-safe bằng một lock.
+ * Dùng cho cache nhỏ, đọc/ghi O(1); không dùng cho dữ liệu cần TTL chính xác.
+ */
+public class LruCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries;
+
+    public LruCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.Util;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Thực thi @RetryOnOptimisticLock. Chạy ngoài @Transactional (HIGHEST_PRECEDENCE) nên mỗi lần thử
+ * là một transaction mới, đọc lại booking/vehicle với version mới nhất.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OptimisticRetryAspect {
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnOptimisticLock retry) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Được gọi bên trong transaction của caller: chạy lại ở đây vẫn dùng persistence context cũ,
+            // để transaction ngoài cùng quyết định
+            return joinPoint.proceed();
+        }
+        long backoff = retry.backoffMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= retry.maxAttempts()) {
+                    throw new RuntimeException("Dữ liệu vừa được người khác cập nhật, vui lòng thử lại", e);
+                }
+                sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                backoff = Math.min(backoff * 2, retry.maxBackoffMillis());
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Hệ thống đang bận, vui lòng thử lại", e);
+        }
+    }
+}
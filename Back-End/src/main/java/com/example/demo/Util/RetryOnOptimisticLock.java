@@ -0,0 +1,21 @@
+package com.example.demo.Util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Chạy lại method (mỗi lần một transaction mới) khi commit bị từ chối vì optimistic lock.
+ * Backoff tăng gấp đôi từ backoffMillis tới maxBackoffMillis, có jitter để các request va chạm không retry cùng nhịp.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnOptimisticLock {
+
+    int maxAttempts() default 4;
+
+    long backoffMillis() default 20;
+
+    long maxBackoffMillis() default 200;
+}
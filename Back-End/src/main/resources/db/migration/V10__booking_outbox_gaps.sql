@@ -0,0 +1,29 @@
+-- Id outbox bị bỏ qua khi relay (transaction ghi id nhỏ chưa commit lúc id lớn hơn đã giao):
+-- relay giao bù khi event xuất hiện, quá gap-timeout thì chuyển sang dead letter
+CREATE TABLE booking_outbox_gaps (
+    sink VARCHAR(100) NOT NULL,
+    event_id BIGINT NOT NULL,
+    first_seen_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (sink, event_id)
+);
+
+-- Event sink xử lý lỗi quá số lần cho phép (SINK_FAILED) hoặc id không bao giờ xuất hiện (GAP_TIMEOUT)
+CREATE TABLE booking_outbox_dead_letters (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    sink VARCHAR(100) NOT NULL,
+    event_id BIGINT NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    booking_id BIGINT NULL,
+    vehicle_id BIGINT NULL,
+    from_status VARCHAR(20) NULL,
+    to_status VARCHAR(20) NULL,
+    error VARCHAR(1000) NULL,
+    recorded_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
+CREATE INDEX idx_outbox_dead_letters_recorded ON booking_outbox_dead_letters(recorded_at);
+
+-- Event sink đang xử lý lỗi và số lần lỗi liên tiếp của nó (đủ max-attempts thì vào dead letter)
+ALTER TABLE booking_outbox_offsets ADD COLUMN failed_event_id BIGINT NULL;
+ALTER TABLE booking_outbox_offsets ADD COLUMN failures INT NOT NULL DEFAULT 0;
+ALTER TABLE booking_outbox_offsets ADD COLUMN last_error VARCHAR(1000) NULL;
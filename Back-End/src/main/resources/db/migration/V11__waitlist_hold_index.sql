@@ -0,0 +1,2 @@
+-- Hold hết hạn/bị hủy: tìm entry OFFERED giữ bằng hold đó để chuyển sang EXPIRED
+CREATE INDEX idx_waitlist_hold ON booking_waitlist(hold_id);
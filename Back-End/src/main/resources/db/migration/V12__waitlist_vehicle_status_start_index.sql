@@ -0,0 +1,2 @@
+-- Khoảng vừa trống của một xe: range trên start_at trong (vehicle_id, status = 'WAITING')
+CREATE INDEX idx_waitlist_vehicle_status_start ON booking_waitlist(vehicle_id, status, start_at);
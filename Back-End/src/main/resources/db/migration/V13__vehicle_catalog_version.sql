@@ -0,0 +1,3 @@
+-- Version dùng chung của catalog xe (ETag các endpoint xe): tăng cùng transaction với mọi ghi vào xe
+-- và mọi lần booking đổi trạng thái xe
+INSERT INTO data_versions (name, version) VALUES ('vehicle_catalog', 0);
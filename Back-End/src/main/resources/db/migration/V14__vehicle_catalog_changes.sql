@@ -0,0 +1,11 @@
+-- Nhật ký thay đổi catalog xe theo version "vehicle_catalog": mỗi lần tăng version ghi các xe đã đổi
+-- (status_only: chỉ đổi trạng thái), node khác chỉ đọc lại các xe này thay vì dựng lại cả catalog
+CREATE TABLE vehicle_catalog_changes (
+    version BIGINT NOT NULL,
+    vehicle_id BIGINT NOT NULL,
+    status_only BOOLEAN NOT NULL,
+    changed_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (version, vehicle_id)
+);
+
+CREATE INDEX idx_vehicle_catalog_changes_changed ON vehicle_catalog_changes(changed_at);
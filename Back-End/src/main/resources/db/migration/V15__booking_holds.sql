@@ -0,0 +1,21 @@
+-- Giữ chỗ tạm khi checkout, dùng chung giữa các node: createBooking kiểm tra hold của khách khác
+-- trong cùng đoạn khóa dòng vehicle (FOR UPDATE) với kiểm tra booking trùng
+CREATE TABLE booking_holds (
+    id VARCHAR(36) PRIMARY KEY,
+    vehicle_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    start_at DATETIME NOT NULL,
+    end_at DATETIME NOT NULL,
+    expires_at DATETIME(3) NOT NULL,
+    FOREIGN KEY (vehicle_id) REFERENCES vehicles(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_booking_holds_vehicle_start ON booking_holds(vehicle_id, start_at);
+CREATE INDEX idx_booking_holds_expires ON booking_holds(expires_at);
+
+-- Số hold đang có của mỗi user: kiểm tra giới hạn và tăng trong một UPDATE có điều kiện
+CREATE TABLE booking_hold_counts (
+    user_id BIGINT PRIMARY KEY,
+    holds INT NOT NULL DEFAULT 0
+);
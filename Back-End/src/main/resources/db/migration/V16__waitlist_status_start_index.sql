@@ -0,0 +1,2 @@
+-- Dọn định kỳ: entry WAITING đã tới giờ bắt đầu chuyển sang EXPIRED
+CREATE INDEX idx_waitlist_status_start ON booking_waitlist(status, start_at);
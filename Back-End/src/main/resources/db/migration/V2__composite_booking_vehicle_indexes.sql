@@ -0,0 +1,23 @@
+-- =====================================================
+-- Composite indexes cho các query của BookingRepository / VehicleRepository / VehiclePhotoRepository.
+-- Tên index trùng với @Table(indexes = ...) trên entity; RepositoryQueryPlanTest kiểm tra bằng EXPLAIN.
+-- =====================================================
+
+-- findOverlaps, findOverlapsForVehicles, NOT EXISTS của findAvailableVehicles, findActiveIntervalsForVehicles:
+-- vehicle_id = ? AND status IN (...) AND start_at < ? AND end_at > ? đọc hoàn toàn từ index
+CREATE INDEX idx_bookings_vehicle_status_range ON bookings(vehicle_id, status, start_at, end_at);
+
+-- Keyset pagination ORDER BY created_at DESC, id DESC (theo renter và toàn bộ cho admin)
+CREATE INDEX idx_bookings_renter_created ON bookings(renter_id, created_at DESC, id DESC);
+CREATE INDEX idx_bookings_created ON bookings(created_at DESC, id DESC);
+
+-- BookingLifecycleScheduler: status = ? AND start_at <= ? / end_at <= ?
+CREATE INDEX idx_bookings_status_start ON bookings(status, start_at);
+CREATE INDEX idx_bookings_status_end ON bookings(status, end_at);
+
+-- findAvailableVehicles lọc theo loại xe + khoảng giá
+CREATE INDEX idx_vehicles_type_price ON vehicles(vehicle_type, daily_price);
+
+-- Photos theo xe, primary trước, cũ trước
+CREATE INDEX idx_vehicle_photos_vehicle_primary_created ON vehicle_photos(vehicle_id, is_primary, created_at);
+
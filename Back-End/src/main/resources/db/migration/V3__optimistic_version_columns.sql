@@ -0,0 +1,3 @@
+-- Cột version cho optimistic locking (@Version trên Booking và Vehicle)
+ALTER TABLE bookings ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE vehicles ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- Bảng giá theo mùa / cuối tuần / thuê dài ngày (PricingEngine biên dịch thành bảng tra theo loại xe)
+CREATE TABLE rate_plans (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    vehicle_type ENUM('SEDAN', 'SUV', 'HATCHBACK', 'COUPE', 'CONVERTIBLE', 'WAGON', 'PICKUP', 'VAN', 'MOTORCYCLE'),
+    kind ENUM('SEASONAL', 'WEEKEND', 'LONG_RENTAL') NOT NULL,
+    start_date DATE,
+    end_date DATE,
+    min_days INT,
+    adjustment_bp INT NOT NULL,
+    active TINYINT(1) NOT NULL DEFAULT 1
+);
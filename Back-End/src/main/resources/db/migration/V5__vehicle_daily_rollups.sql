@@ -0,0 +1,14 @@
+-- Tổng hợp theo ngày cho từng xe (phút đã được thuê, doanh thu minor unit, số booking bắt đầu trong ngày).
+-- Được cập nhật tăng dần trong transaction chuyển trạng thái booking; rebuild bằng POST /api/reports/utilization/rebuild
+CREATE TABLE vehicle_daily_rollups (
+    vehicle_id BIGINT NOT NULL,
+    rollup_day DATE NOT NULL,
+    booked_minutes BIGINT NOT NULL DEFAULT 0,
+    revenue_minor BIGINT NOT NULL DEFAULT 0,
+    booking_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (vehicle_id, rollup_day),
+    FOREIGN KEY (vehicle_id) REFERENCES vehicles(id) ON DELETE CASCADE
+);
+
+-- Báo cáo theo khoảng ngày cho cả đội xe
+CREATE INDEX idx_rollups_day_vehicle ON vehicle_daily_rollups(rollup_day, vehicle_id);
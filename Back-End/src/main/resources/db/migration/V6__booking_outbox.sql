@@ -0,0 +1,19 @@
+-- Transactional outbox: mỗi lần booking đổi trạng thái ghi một dòng trong cùng transaction,
+-- relay đọc theo id tăng dần và đẩy cho các sink in-process
+CREATE TABLE booking_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    booking_id BIGINT NOT NULL,
+    vehicle_id BIGINT NOT NULL,
+    from_status VARCHAR(20) NULL,
+    to_status VARCHAR(20) NOT NULL,
+    start_at DATETIME NOT NULL,
+    end_at DATETIME NOT NULL,
+    occurred_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
+-- Offset đã xử lý xong của từng sink (at-least-once: cập nhật sau khi sink xử lý)
+CREATE TABLE booking_outbox_offsets (
+    sink VARCHAR(100) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
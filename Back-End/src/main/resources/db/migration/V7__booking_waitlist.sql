@@ -0,0 +1,17 @@
+-- Danh sách chờ xe đã kín lịch; khoảng vừa trống được so với các entry WAITING ngay trong database
+CREATE TABLE booking_waitlist (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    vehicle_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    start_at DATETIME NOT NULL,
+    end_at DATETIME NOT NULL,
+    status ENUM('WAITING', 'OFFERED', 'CANCELLED', 'EXPIRED') NOT NULL DEFAULT 'WAITING',
+    hold_id VARCHAR(36) NULL,
+    offer_expires_at DATETIME NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (vehicle_id) REFERENCES vehicles(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_waitlist_status_vehicle ON booking_waitlist(status, vehicle_id);
+CREATE INDEX idx_waitlist_user_created ON booking_waitlist(user_id, created_at);
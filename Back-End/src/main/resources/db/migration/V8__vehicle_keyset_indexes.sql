@@ -0,0 +1,3 @@
+-- Keyset pagination danh sách/search xe: ORDER BY <khóa sort>, id (hai chiều dùng chung index)
+CREATE INDEX idx_vehicles_price_id ON vehicles(daily_price, id);
+CREATE INDEX idx_vehicles_created_id ON vehicles(created_at, id);
@@ -0,0 +1,8 @@
+-- Version dùng chung giữa các node cho dữ liệu được cache/biên dịch trong từng node:
+-- transaction ghi tăng version của dòng tương ứng, các node poll và dựng lại khi version đổi
+CREATE TABLE data_versions (
+    name VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO data_versions (name, version) VALUES ('rate_plans', 0);
@@ -0,0 +1,429 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Entity.Booking;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Entity.VehiclePhoto;
+import com.example.demo.Entity.WaitlistEntry;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EXPLAIN từng query của BookingRepository / VehicleRepository / VehiclePhotoRepository / BookingJdbcRepository
+ * trên H2 và fail nếu plan có full table scan.
+ * Schema dựng bằng Flyway từ db/migration (không phải từ entity), mỗi test gọi đúng method của repository
+ * và EXPLAIN các câu SQL mà Hibernate/JdbcTemplate thực sự gửi xuống (bắt ở DataSource),
+ * nên query hoặc migration bị sửa lệch đều làm test fail.
+ *
+ * Cố ý không kiểm tra các query đọc toàn bộ bảng: findAll, findAllWithPhotos, findAllByOrderByCreatedAtDesc, findAllTexts;
+ * search theo VehicleSpecifications chỉ kiểm tra tổ hợp type + giá (các filter khác là tùy chọn trên catalog).
+ * findAvailableVehicles được phép scan vehicles (filter tùy chọn trên catalog) nhưng NOT EXISTS trên bookings phải dùng index.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plan;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        // cột `full-name` của users cần quote
+        "spring.jpa.properties.hibernate.globally_quoted_identifiers=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BookingJdbcRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RepositoryQueryPlanTest {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("(\\w+)\\.tablescan");
+
+    // Khóa dòng không đổi plan; bỏ đi để EXPLAIN chạy được trên mọi câu SELECT
+    private static final Pattern FOR_UPDATE = Pattern.compile("(?is)\\s+for\\s+update.*$");
+
+    private static final Timestamp FROM = Timestamp.valueOf(LocalDateTime.of(2025, 3, 1, 0, 0));
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime WINDOW_END = LocalDateTime.of(2025, 3, 5, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private VehiclePhotoRepository vehiclePhotoRepository;
+
+    @Autowired
+    private BookingJdbcRepository bookingJdbcRepository;
+
+    @BeforeEach
+    void seed() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        // Đủ dòng để optimizer của H2 ưu tiên index thay vì scan bảng nhỏ
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            users.add(new Object[]{"user" + i, "x", "User " + i, i % 10 == 0 ? "ADMIN" : "CUSTOMER"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, password, `full-name`, role) VALUES (?, ?, ?, ?)", users);
+
+        Vehicle.VehicleType[] types = Vehicle.VehicleType.values();
+        List<Object[]> vehicles = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            vehicles.add(new Object[]{"Xe " + i, types[i % types.length].name(), "30A-" + i, 300_000 + i * 1_000,
+                    "VND", "AVAILABLE", Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO vehicles (title, vehicle_type, license_plate, daily_price, currency, status, created_at, version) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, 0)", vehicles);
+
+        List<Object[]> photos = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            photos.add(new Object[]{(long) (i % 200) + 1, "/photos/" + i + ".jpg", i < 200,
+                    Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO vehicle_photos (vehicle_id, url, is_primary, created_at) VALUES (?, ?, ?, ?)", photos);
+
+        Booking.BookingStatus[] statuses = Booking.BookingStatus.values();
+        List<Object[]> bookings = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2024, 6, 1, 8, 0);
+        for (int i = 0; i < 5000; i++) {
+            LocalDateTime start = base.plusHours(i * 7L);
+            bookings.add(new Object[]{(long) (i % 200) + 1, (long) (i % 50) + 1, statuses[i % statuses.length].name(),
+                    Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1 + i % 4)), 500_000, 1_000_000, "VND",
+                    Timestamp.valueOf(start.minusDays(3))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (vehicle_id, renter_id, status, start_at, end_at, "
+                + "daily_price_snapshot, total_amount, currency, created_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", bookings);
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    // ===== BookingRepository =====
+
+    @Test
+    void findByIdUsesPrimaryKey() {
+        assertNoTableScan(() -> bookingRepository.findById(42L));
+    }
+
+    @Test
+    void findAllWithVehicleByIdInUsesPrimaryKeys() {
+        assertNoTableScan(() -> bookingRepository.findAllWithVehicleByIdIn(List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void findOverlapsUsesVehicleStatusRangeIndex() {
+        assertNoTableScan(() -> bookingRepository.findOverlaps(vehicleRepository.getReferenceById(7L), WINDOW_START, WINDOW_END));
+    }
+
+    @Test
+    void findOverlapsForVehiclesUsesVehicleStatusRangeIndex() {
+        assertNoTableScan(() -> bookingRepository.findOverlapsForVehicles(List.of(7L, 8L, 9L), WINDOW_START, WINDOW_END));
+    }
+
+    @Test
+    void findAvailableVehiclesProbesBookingsByIndex() {
+        assertNoTableScan(executed(() -> bookingRepository.findAvailableVehicles(Vehicle.VehicleType.SUV,
+                        new BigDecimal("300000"), new BigDecimal("400000"), WINDOW_START, WINDOW_END, PageRequest.of(0, 20))),
+                Set.of("vehicles"));
+    }
+
+    @Test
+    void findActiveIntervalsUsesStatusIndex() {
+        assertNoTableScan(() -> bookingRepository.findActiveIntervals());
+    }
+
+    @Test
+    void findActiveIntervalsForVehiclesUsesVehicleStatusRangeIndex() {
+        assertNoTableScan(() -> bookingRepository.findActiveIntervalsForVehicles(List.of(7L, 8L), WINDOW_START, WINDOW_END));
+    }
+
+    @Test
+    void findByRenterIdOrderByCreatedAtDescUsesRenterCreatedIndex() {
+        assertNoTableScan(() -> bookingRepository.findByRenterIdOrderByCreatedAtDesc(3L));
+    }
+
+    @Test
+    void findPageUsesCreatedIndex() {
+        assertNoTableScan(() -> bookingRepository.findPage(Limit.of(51)));
+    }
+
+    @Test
+    void findPageAfterUsesCreatedIndex() {
+        assertNoTableScan(() -> bookingRepository.findPageAfter(FROM, 1000L, Limit.of(51)));
+    }
+
+    @Test
+    void findPageByRenterUsesRenterCreatedIndex() {
+        assertNoTableScan(() -> bookingRepository.findPageByRenter(3L, Limit.of(51)));
+    }
+
+    @Test
+    void findPageByRenterAfterUsesRenterCreatedIndex() {
+        assertNoTableScan(() -> bookingRepository.findPageByRenterAfter(3L, FROM, 1000L, Limit.of(51)));
+    }
+
+    // ===== BookingJdbcRepository =====
+
+    @Test
+    void claimDueByStartUsesStatusStartIndex() {
+        assertNoTableScan(() -> bookingJdbcRepository.claimDueByStart(Booking.BookingStatus.CONFIRMED, WINDOW_END, 500));
+    }
+
+    @Test
+    void claimDueByEndUsesStatusEndIndex() {
+        assertNoTableScan(() -> bookingJdbcRepository.claimDueByEnd(Booking.BookingStatus.ACTIVE, WINDOW_END, 500));
+    }
+
+    @Test
+    void updateVehicleStatusUsesPrimaryKey() {
+        assertNoTableScan(() -> bookingJdbcRepository.updateVehicleStatus(List.of(1L, 2L, 3L),
+                Vehicle.VehicleStatus.RENTED, Vehicle.VehicleStatus.AVAILABLE));
+    }
+
+    @Test
+    void releaseVehiclesProbesActiveBookingsByIndex() {
+        assertNoTableScan(() -> bookingJdbcRepository.releaseVehicles(List.of(1L, 2L, 3L)));
+    }
+
+    // ===== VehicleRepository =====
+
+    @Test
+    void findByIdWithPhotosUsesPrimaryKeyAndPhotoIndex() {
+        assertNoTableScan(() -> vehicleRepository.findByIdWithPhotos(5L));
+    }
+
+    @Test
+    void findByIdForUpdateUsesPrimaryKey() {
+        assertNoTableScan(() -> vehicleRepository.findByIdForUpdate(5L));
+    }
+
+    @Test
+    void findAllByIdForUpdateUsesPrimaryKey() {
+        assertNoTableScan(() -> vehicleRepository.findAllByIdForUpdate(List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void findAllWithPhotosByIdInUsesPrimaryKeyAndPhotoIndex() {
+        assertNoTableScan(() -> vehicleRepository.findAllWithPhotosByIdIn(List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void findStatusesByIdInUsesPrimaryKey() {
+        assertNoTableScan(() -> vehicleRepository.findStatusesByIdIn(List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void findPriceByIdUsesPrimaryKey() {
+        assertNoTableScan(() -> vehicleRepository.findPriceById(5L));
+    }
+
+    @Test
+    void searchByTypeAndPriceUsesTypePriceIndex() {
+        assertNoTableScan(() -> vehicleRepository.findAll(VehicleSpecifications.search(Vehicle.VehicleType.SUV,
+                new BigDecimal("400000"), new BigDecimal("450000"), null, null), PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void keysetPageByPriceUsesPriceIdIndex() {
+        Sort sort = Sort.by("dailyPrice", "id");
+        assertNoTableScan(() -> vehicleRepository.findBy(VehicleSpecifications.search(null, null, null, null, null),
+                query -> query.sortBy(sort).limit(21).all()));
+        assertNoTableScan(() -> vehicleRepository.findBy(
+                VehicleSpecifications.after("dailyPrice", new BigDecimal("400000"), 120L, false),
+                query -> query.sortBy(sort).limit(21).all()));
+    }
+
+    @Test
+    void keysetPageByCreatedAtUsesCreatedIdIndex() {
+        assertNoTableScan(() -> vehicleRepository.findBy(VehicleSpecifications.after("createdAt", FROM, 120L, true),
+                query -> query.sortBy(Sort.by(Sort.Direction.DESC, "createdAt", "id")).limit(21).all()));
+    }
+
+    // ===== VehiclePhotoRepository =====
+
+    @Test
+    void findByVehicleIdOrderByIsPrimaryDescCreatedAtAscUsesPhotoIndex() {
+        assertNoTableScan(() -> vehiclePhotoRepository.findByVehicleIdOrderByIsPrimaryDescCreatedAtAsc(5L));
+    }
+
+    @Test
+    void findByVehicleIdAndIsPrimaryTrueUsesPhotoIndex() {
+        assertNoTableScan(() -> vehiclePhotoRepository.findByVehicleIdAndIsPrimaryTrue(5L));
+    }
+
+    @Test
+    void findPrimaryPhotosByVehicleUsesPhotoIndex() {
+        assertNoTableScan(() -> vehiclePhotoRepository.findPrimaryPhotosByVehicle(vehicleRepository.getReferenceById(5L)));
+    }
+
+    // ===== Migration khớp với entity =====
+
+    @Test
+    void everyDeclaredIndexHasAMigration() throws Exception {
+        StringBuilder migrations = new StringBuilder();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/*.sql")) {
+            migrations.append(new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        }
+        String normalizedMigrations = normalize(migrations.toString());
+
+        for (Class<?> entity : List.of(Booking.class, Vehicle.class, VehiclePhoto.class, WaitlistEntry.class)) {
+            Table table = entity.getAnnotation(Table.class);
+            for (Index index : table.indexes()) {
+                String expected = normalize("CREATE INDEX " + index.name() + " ON " + table.name()
+                        + "(" + index.columnList() + ")");
+                assertTrue(normalizedMigrations.contains(expected),
+                        "Thiếu migration cho index " + index.name() + " của " + table.name());
+            }
+        }
+    }
+
+    /**
+     * Gọi repository trong một transaction (rollback) và trả về các câu SQL đã gửi xuống database
+     */
+    private List<String> executed(Runnable call) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            sqlCapture.statements.clear();
+            call.run();
+            status.setRollbackOnly();
+            return List.copyOf(sqlCapture.statements);
+        });
+    }
+
+    private void assertNoTableScan(Runnable call) {
+        assertNoTableScan(executed(call), Set.of());
+    }
+
+    private void assertNoTableScan(List<String> statements, Set<String> allowedScans) {
+        assertFalse(statements.isEmpty(), "Repository không gửi câu SQL nào");
+        for (String sql : statements) {
+            List<String> scanned = tableScans(sql);
+            scanned.removeAll(allowedScans);
+            assertTrue(scanned.isEmpty(), "Full table scan trên " + scanned + " cho: " + sql);
+        }
+    }
+
+    private List<String> tableScans(String sql) {
+        String explain = "EXPLAIN " + FOR_UPDATE.matcher(sql).replaceFirst("");
+        // Tham số để trống: EXPLAIN của H2 không cần giá trị bind
+        String plan = jdbcTemplate.query(con -> con.prepareStatement(explain), rs -> rs.next() ? rs.getString(1) : "");
+        List<String> tables = new ArrayList<>();
+        Matcher matcher = TABLE_SCAN.matcher(plan.toLowerCase(Locale.ROOT).replace("\"", ""));
+        while (matcher.find()) {
+            tables.add(matcher.group(1));
+        }
+        return tables;
+    }
+
+    private static String normalize(String sql) {
+        return sql.toLowerCase(Locale.ROOT).replaceAll("\\s+", "");
+    }
+
+    /**
+     * Ghi lại mọi câu SQL được prepare qua DataSource (cả Hibernate lẫn JdbcTemplate)
+     */
+    static final class SqlCapture {
+
+        final List<String> statements = new CopyOnWriteArrayList<>();
+
+        DataSource wrap(DataSource target) {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{DataSource.class, Closeable.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("close")) {
+                            if (target instanceof AutoCloseable closeable) {
+                                closeable.close();
+                            }
+                            return null;
+                        }
+                        Object result = invoke(target, method, args);
+                        return result instanceof Connection connection ? wrap(connection) : result;
+                    });
+        }
+
+        private Connection wrap(Connection target) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("prepareStatement")) {
+                            statements.add((String) args[0]);
+                        }
+                        return invoke(target, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+
+        @Bean
+        static BeanPostProcessor capturingDataSource(ObjectProvider<SqlCapture> capture) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? capture.getObject().wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+}
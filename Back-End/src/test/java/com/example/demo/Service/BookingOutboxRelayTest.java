@@ -0,0 +1,186 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.Booking;
+import com.example.demo.Repository.BookingOutboxJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class BookingOutboxRelayTest {
+
+    private final InMemoryOutbox outbox = new InMemoryOutbox();
+
+    private final List<Long> handled = new ArrayList<>();
+
+    private final TreeSet<Long> poison = new TreeSet<>();
+
+    private BookingOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        BookingEventSink sink = new BookingEventSink() {
+            @Override
+            public String name() {
+                return "test";
+            }
+
+            @Override
+            public void handle(List<BookingOutboxJdbcRepository.OutboxEvent> events) {
+                for (BookingOutboxJdbcRepository.OutboxEvent event : events) {
+                    if (poison.contains(event.id())) {
+                        throw new IllegalStateException("không xử lý được event " + event.id());
+                    }
+                }
+                events.forEach(e -> handled.add(e.id()));
+            }
+        };
+
+        relay = new BookingOutboxRelay();
+        ReflectionTestUtils.setField(relay, "outboxRepository", outbox);
+        ReflectionTestUtils.setField(relay, "sinks", List.of(sink));
+        ReflectionTestUtils.setField(relay, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(relay, "enabled", true);
+        ReflectionTestUtils.setField(relay, "batchSize", 500);
+        ReflectionTestUtils.setField(relay, "maxBatches", 20);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+    }
+
+    @Test
+    void lateCommitBelowOffsetIsDeliveredWhenItAppears() {
+        outbox.append(1, 2, 4);
+        relay.relay();
+
+        assertEquals(List.of(1L, 2L, 4L), handled);
+        assertEquals(4, outbox.lastEventId);
+        assertEquals(List.of(3L), List.copyOf(outbox.gaps));
+
+        // Transaction giữ id 3 commit sau khi offset đã qua 4
+        outbox.append(3, 5);
+        relay.relay();
+
+        assertEquals(List.of(1L, 2L, 4L, 3L, 5L), handled);
+        assertTrue(outbox.gaps.isEmpty());
+    }
+
+    @Test
+    void gapThatNeverAppearsIsDeadLetteredAfterTimeout() {
+        outbox.append(1, 3);
+        relay.relay();
+        outbox.gapsExpired = true;
+        relay.relay();
+
+        assertTrue(outbox.gaps.isEmpty());
+        assertEquals(List.of("GAP_TIMEOUT:2"), outbox.deadLetters);
+    }
+
+    @Test
+    void poisonEventIsDeadLetteredAfterMaxAttemptsAndOthersFlow() {
+        outbox.append(1, 2, 3, 4, 5);
+        poison.add(3L);
+
+        for (int round = 0; round < 5; round++) {
+            relay.relay();
+        }
+
+        assertEquals(List.of(1L, 2L, 4L, 5L), handled);
+        assertEquals(List.of("SINK_FAILED:3"), outbox.deadLetters);
+        assertEquals(5, outbox.lastEventId);
+        assertEquals(0, outbox.failures);
+    }
+
+    /**
+     * Outbox in-memory cùng ngữ nghĩa với các câu SQL (bỏ qua settle)
+     */
+    private static final class InMemoryOutbox extends BookingOutboxJdbcRepository {
+
+        final TreeMap<Long, OutboxEvent> events = new TreeMap<>();
+        final TreeSet<Long> gaps = new TreeSet<>();
+        final List<String> deadLetters = new ArrayList<>();
+        long lastEventId;
+        Long failedEventId;
+        int failures;
+        String lastError;
+        boolean gapsExpired;
+
+        void append(long... ids) {
+            LocalDateTime startAt = LocalDateTime.now().plusDays(1);
+            for (long id : ids) {
+                events.put(id, new OutboxEvent(id, id, 1L, Booking.BookingStatus.PENDING, Booking.BookingStatus.CANCELLED,
+                        startAt, startAt.plusDays(1), LocalDateTime.now()));
+            }
+        }
+
+        @Override
+        public void ensureOffset(String sink) {
+        }
+
+        @Override
+        public Optional<SinkOffset> lockOffset(String sink) {
+            return Optional.of(new SinkOffset(lastEventId, failedEventId, failures, lastError));
+        }
+
+        @Override
+        public void saveOffset(String sink, long lastEventId) {
+            this.lastEventId = lastEventId;
+            failedEventId = null;
+            failures = 0;
+            lastError = null;
+        }
+
+        @Override
+        public void recordFailure(String sink, long eventId, String error) {
+            failures = Long.valueOf(eventId).equals(failedEventId) ? failures + 1 : 1;
+            failedEventId = eventId;
+            lastError = error;
+        }
+
+        @Override
+        public List<OutboxEvent> findAfter(long afterId, long settleMillis, int limit) {
+            return events.tailMap(afterId, false).values().stream().limit(limit).toList();
+        }
+
+        @Override
+        public List<OutboxEvent> findGapArrivals(String sink, int limit) {
+            return gaps.stream().filter(events::containsKey).map(events::get).limit(limit).toList();
+        }
+
+        @Override
+        public void addGaps(String sink, List<Long> eventIds) {
+            gaps.addAll(eventIds);
+        }
+
+        @Override
+        public void deleteGaps(String sink, Collection<Long> eventIds) {
+            gaps.removeAll(eventIds);
+        }
+
+        @Override
+        public List<Long> expireGaps(String sink, long timeoutMillis) {
+            if (!gapsExpired) {
+                return List.of();
+            }
+            List<Long> expired = List.copyOf(gaps);
+            expired.forEach(id -> deadLetters.add("GAP_TIMEOUT:" + id));
+            gaps.clear();
+            return expired;
+        }
+
+        @Override
+        public void deadLetter(String sink, long eventId, String error) {
+            deadLetters.add("SINK_FAILED:" + eventId);
+        }
+    }
+}
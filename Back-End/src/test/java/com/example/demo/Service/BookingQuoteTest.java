@@ -0,0 +1,126 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.BookingCreateRequest;
+import com.example.demo.DTO.PriceQuoteResponse;
+import com.example.demo.Entity.Booking;
+import com.example.demo.Entity.RatePlan;
+import com.example.demo.Entity.User;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.DataVersionJdbcRepository;
+import com.example.demo.Repository.RatePlanRepository;
+import com.example.demo.Repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Báo giá (quote, qua PriceQuoteCache) phải đúng bằng số tiền buildBooking snapshot khi đặt xe.
+ */
+class BookingQuoteTest {
+
+    private static final long VEHICLE_ID = 7L;
+
+    private final LocalDateTime nextFriday = LocalDateTime.now()
+            .with(TemporalAdjusters.next(DayOfWeek.FRIDAY)).withHour(18).withMinute(0).withSecond(0).withNano(0);
+
+    private final Vehicle vehicle = new Vehicle();
+
+    private final VehicleRepository.VehiclePriceView priceView = mock(VehicleRepository.VehiclePriceView.class);
+
+    private BookingService bookingService;
+
+    @BeforeEach
+    void setUp() {
+        RatePlanRepository ratePlans = mock(RatePlanRepository.class);
+        when(ratePlans.findByActiveTrue()).thenReturn(List.of(
+                plan(RatePlan.Kind.WEEKEND, 2_500, 1),
+                plan(RatePlan.Kind.LONG_RENTAL, -1_500, 7)));
+        PricingEngine pricingEngine = new PricingEngine();
+        ReflectionTestUtils.setField(pricingEngine, "ratePlanRepository", ratePlans);
+        ReflectionTestUtils.setField(pricingEngine, "dataVersionRepository", mock(DataVersionJdbcRepository.class));
+        ReflectionTestUtils.setField(pricingEngine, "horizonPastDays", 30);
+        ReflectionTestUtils.setField(pricingEngine, "horizonDays", 120);
+        pricingEngine.compile();
+
+        PriceQuoteCache quoteCache = new PriceQuoteCache(100);
+        ReflectionTestUtils.setField(quoteCache, "pricingEngine", pricingEngine);
+
+        ReflectionTestUtils.setField(vehicle, "id", VEHICLE_ID);
+        vehicle.setVehicleType(Vehicle.VehicleType.SUV);
+        setPrice("733333.00", 1L);
+
+        VehicleRepository vehicleRepository = mock(VehicleRepository.class);
+        when(vehicleRepository.findPriceById(VEHICLE_ID)).thenReturn(Optional.of(priceView));
+
+        bookingService = new BookingService();
+        ReflectionTestUtils.setField(bookingService, "vehicleRepository", vehicleRepository);
+        ReflectionTestUtils.setField(bookingService, "pricingEngine", pricingEngine);
+        ReflectionTestUtils.setField(bookingService, "quoteCache", quoteCache);
+    }
+
+    @Test
+    void quoteMatchesBookedTotalAcrossWeekendsAndLongRentals() {
+        // Giờ lẻ làm tròn lên ngày, cuối tuần tăng giá, từ 7 ngày giảm giá
+        for (int hours : new int[]{3, 26, 72, 7 * 24, 9 * 24 + 5}) {
+            LocalDateTime endAt = nextFriday.plusHours(hours);
+
+            PriceQuoteResponse quote = bookingService.quote(VEHICLE_ID, nextFriday, endAt);
+            Booking booking = book(nextFriday, endAt);
+
+            assertEquals(booking.getTotalAmount(), quote.getTotalAmount(), "thuê " + hours + " giờ");
+            assertEquals(booking.getDailyPriceSnapshot(), quote.getDailyPrice());
+            assertEquals(booking.getCurrency(), quote.getCurrency());
+        }
+    }
+
+    @Test
+    void cachedQuoteFollowsVehiclePriceChange() {
+        LocalDateTime endAt = nextFriday.plusDays(3);
+        bookingService.quote(VEHICLE_ID, nextFriday, endAt);
+
+        // Sửa giá tăng vehicles.version: key cũ không còn được tra tới
+        setPrice("910000.00", 2L);
+
+        assertEquals(book(nextFriday, endAt).getTotalAmount(),
+                bookingService.quote(VEHICLE_ID, nextFriday, endAt).getTotalAmount());
+    }
+
+    private Booking book(LocalDateTime startAt, LocalDateTime endAt) {
+        BookingCreateRequest req = new BookingCreateRequest();
+        req.setVehicleId(VEHICLE_ID);
+        req.setStartAt(startAt);
+        req.setEndAt(endAt);
+        return ReflectionTestUtils.invokeMethod(bookingService, "buildBooking",
+                req, vehicle, new User("renter", "secret", "Renter"));
+    }
+
+    private void setPrice(String dailyPrice, long version) {
+        vehicle.setDailyPrice(new BigDecimal(dailyPrice));
+        vehicle.setCurrency("VND");
+        when(priceView.getId()).thenReturn(VEHICLE_ID);
+        when(priceView.getVersion()).thenReturn(version);
+        when(priceView.getVehicleType()).thenReturn(Vehicle.VehicleType.SUV);
+        when(priceView.getDailyPrice()).thenReturn(new BigDecimal(dailyPrice));
+        when(priceView.getCurrency()).thenReturn("VND");
+    }
+
+    private static RatePlan plan(RatePlan.Kind kind, int bp, int minDays) {
+        RatePlan plan = new RatePlan();
+        plan.setName(kind.name());
+        plan.setKind(kind);
+        plan.setAdjustmentBp(bp);
+        plan.setMinDays(minDays);
+        return plan;
+    }
+}
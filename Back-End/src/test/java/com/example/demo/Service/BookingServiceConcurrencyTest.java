@@ -0,0 +1,166 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.BookingCreateRequest;
+import com.example.demo.Entity.Booking;
+import com.example.demo.Entity.User;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.BookingRepository;
+import com.example.demo.Repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress test: nhiều thread cùng đặt một xe trong cùng khoảng thời gian,
+ * chỉ đúng một booking được chấp nhận.
+ */
+class BookingServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    private final Map<Long, List<Booking>> store = new ConcurrentHashMap<>();
+
+    private BookingService bookingService;
+
+    @BeforeEach
+    void setUp() {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        VehicleRepository vehicleRepository = mock(VehicleRepository.class);
+        UserService userService = mock(UserService.class);
+
+        when(vehicleRepository.findByIdForUpdate(anyLong())).thenAnswer(inv -> {
+            Vehicle vehicle = new Vehicle();
+            ReflectionTestUtils.setField(vehicle, "id", inv.getArgument(0));
+            vehicle.setDailyPrice(new BigDecimal("500000.00"));
+            return Optional.of(vehicle);
+        });
+        // "Database" giả: đọc chậm để nới rộng cửa sổ race giữa check và insert
+        when(bookingRepository.findOverlaps(any(), any(), any())).thenAnswer(inv -> {
+            Vehicle vehicle = inv.getArgument(0);
+            LocalDateTime startAt = inv.getArgument(1);
+            LocalDateTime endAt = inv.getArgument(2);
+            List<Booking> existing = new ArrayList<>(store.getOrDefault(vehicle.getId(), List.of()));
+            Thread.sleep(5);
+            return existing.stream()
+                    .filter(b -> startAt.isBefore(b.getEndAt()) && endAt.isAfter(b.getStartAt()))
+                    .toList();
+        });
+        when(bookingRepository.save(any())).thenAnswer(inv -> {
+            Booking booking = inv.getArgument(0);
+            store.computeIfAbsent(booking.getVehicle().getId(), k -> new CopyOnWriteArrayList<>())
+                    .add(booking);
+            return booking;
+        });
+        when(userService.getCurrentUser()).thenReturn(new User("renter", "secret", "Renter"));
+
+        bookingService = new BookingService();
+        ReflectionTestUtils.setField(bookingService, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(bookingService, "vehicleRepository", vehicleRepository);
+        ReflectionTestUtils.setField(bookingService, "userService", userService);
+        ReflectionTestUtils.setField(bookingService, "availabilityIndex", mock(VehicleAvailabilityIndex.class));
+        ReflectionTestUtils.setField(bookingService, "vehicleLocks", new VehicleBookingLocks(64, 10_000));
+        ReflectionTestUtils.setField(bookingService, "holdService", mock(BookingHoldService.class));
+        ReflectionTestUtils.setField(bookingService, "pricingEngine", mock(PricingEngine.class));
+        ReflectionTestUtils.setField(bookingService, "outbox", mock(BookingOutbox.class));
+        ReflectionTestUtils.setField(bookingService, "transactionManager", new NoOpTransactionManager());
+    }
+
+    @Test
+    void sameVehicleSameIntervalIsBookedExactlyOnce() throws Exception {
+        int accepted = race(i -> 1L);
+
+        assertEquals(1, accepted);
+        assertEquals(1, store.get(1L).size());
+    }
+
+    @Test
+    void differentVehiclesAreAllAccepted() throws Exception {
+        int accepted = race(i -> (long) i + 1);
+
+        assertEquals(THREADS, accepted);
+    }
+
+    private int race(IntFunction<Long> vehicleOf) throws Exception {
+        LocalDateTime startAt = LocalDateTime.now().plusDays(1);
+        LocalDateTime endAt = startAt.plusDays(2);
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                BookingCreateRequest req = new BookingCreateRequest();
+                req.setVehicleId(vehicleOf.apply(i));
+                req.setStartAt(startAt);
+                req.setEndAt(endAt);
+                results.add(pool.submit(() -> {
+                    go.await();
+                    try {
+                        bookingService.createBooking(req);
+                        return true;
+                    } catch (RuntimeException e) {
+                        // booking bị từ chối -> rollback
+                        return false;
+                    }
+                }));
+            }
+            go.countDown();
+
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    accepted++;
+                }
+            }
+            return accepted;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Transaction giả: chỉ chạy vòng đời synchronization (nhả lock) như khi commit/rollback thật
+     */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
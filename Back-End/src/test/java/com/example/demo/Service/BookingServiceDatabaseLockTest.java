@@ -0,0 +1,198 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.BookingCreateRequest;
+import com.example.demo.Entity.Booking;
+import com.example.demo.Entity.User;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.BookingJdbcRepository;
+import com.example.demo.Repository.BookingRepository;
+import com.example.demo.Repository.UserRepository;
+import com.example.demo.Repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress test với transaction thật trên H2 (schema từ db/migration): nhiều thread cùng đặt một xe.
+ * Stripe lock trong node được thay bằng mock, mô phỏng các request đến từ nhiều node:
+ * chỉ còn khóa dòng vehicle (PESSIMISTIC_WRITE / SELECT ... FOR UPDATE) tuần tự hóa check-then-insert.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking-lock;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=8",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        // cột `full-name` của users cần quote
+        "spring.jpa.properties.hibernate.globally_quoted_identifiers=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BookingService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingServiceDatabaseLockTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private VehicleBookingLocks vehicleLocks;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private VehicleAvailabilityIndex availabilityIndex;
+
+    @MockitoBean
+    private BookingAdmissionQueues admissionQueues;
+
+    @MockitoBean
+    private BookingJdbcRepository bookingJdbcRepository;
+
+    @MockitoBean
+    private BookingHoldService holdService;
+
+    @MockitoBean
+    private PricingEngine pricingEngine;
+
+    @MockitoBean
+    private PriceQuoteCache quoteCache;
+
+    @MockitoBean
+    private FleetRollupService rollupService;
+
+    @MockitoBean
+    private BookingOutbox outbox;
+
+    @MockitoBean
+    private VehicleCatalog catalog;
+
+    private Long vehicleId;
+
+    @BeforeEach
+    void seed() {
+        bookingRepository.deleteAll();
+        vehicleRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User renter = new User("renter", "secret", "Renter");
+        renter.setRole(User.Role.CUSTOMER);
+        renter = userRepository.save(renter);
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setTitle("Toyota Vios");
+        vehicle.setVehicleType(Vehicle.VehicleType.SEDAN);
+        vehicle.setLicensePlate("51A-67890");
+        vehicle.setDailyPrice(new BigDecimal("650000.00"));
+        vehicle.setCurrency("VND");
+        vehicleId = vehicleRepository.save(vehicle).getId();
+
+        when(userService.getCurrentUser()).thenReturn(renter);
+        when(pricingEngine.quoteMinor(any(), anyLong(), any(), anyInt())).thenReturn(0L);
+    }
+
+    @Test
+    void sameIntervalFromManyNodesIsBookedExactlyOnce() throws Exception {
+        LocalDateTime startAt = LocalDateTime.now().plusDays(1).withNano(0);
+
+        int accepted = race(i -> request(startAt, startAt.plusDays(2)));
+
+        assertEquals(1, accepted);
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void overlappingIntervalsNeverBothCommit() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+
+        // Khoảng thứ i chồng lấn với khoảng i-1 và i+1
+        race(i -> request(base.plusHours(12L * i), base.plusHours(12L * i + 18)));
+
+        List<Booking> saved = bookingRepository.findAll();
+        for (int i = 0; i < saved.size(); i++) {
+            for (int j = i + 1; j < saved.size(); j++) {
+                Booking a = saved.get(i);
+                Booking b = saved.get(j);
+                assertFalse(a.getStartAt().isBefore(b.getEndAt()) && a.getEndAt().isAfter(b.getStartAt()),
+                        "Hai booking chồng lấn cùng được lưu: " + a.getId() + ", " + b.getId());
+            }
+        }
+    }
+
+    private BookingCreateRequest request(LocalDateTime startAt, LocalDateTime endAt) {
+        BookingCreateRequest req = new BookingCreateRequest();
+        req.setVehicleId(vehicleId);
+        req.setStartAt(startAt);
+        req.setEndAt(endAt);
+        return req;
+    }
+
+    private int race(IntFunction<BookingCreateRequest> requestOf) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                BookingCreateRequest req = requestOf.apply(i);
+                results.add(pool.submit(() -> {
+                    go.await();
+                    try {
+                        bookingService.createBooking(req);
+                        return true;
+                    } catch (RuntimeException e) {
+                        // bị từ chối vì trùng lịch -> transaction rollback
+                        return false;
+                    }
+                }));
+            }
+            go.countDown();
+
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) {
+                    accepted++;
+                }
+            }
+            return accepted;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FleetRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void bookingIsSplitAcrossDaysWithRevenueRemainderOnLastDay() {
+        Map<FleetRollupService.DayKey, long[]> totals = new HashMap<>();
+
+        // 18:00 ngày 10 -> 06:00 ngày 12: 6h + 24h + 6h
+        FleetRollupService.split(7L, DAY.atTime(18, 0), DAY.plusDays(2).atTime(6, 0), 1_000_001L, 1,
+                null, null, totals);
+
+        assertEquals(3, totals.size());
+        assertArrayEquals(new long[]{360, 166_666, 1}, totals.get(new FleetRollupService.DayKey(7L, DAY)));
+        assertArrayEquals(new long[]{1440, 666_667, 0}, totals.get(new FleetRollupService.DayKey(7L, DAY.plusDays(1))));
+        assertArrayEquals(new long[]{360, 166_668, 0}, totals.get(new FleetRollupService.DayKey(7L, DAY.plusDays(2))));
+    }
+
+    @Test
+    void reversingAChangeCancelsOut() {
+        Map<FleetRollupService.DayKey, long[]> totals = new HashMap<>();
+        LocalDateTime start = DAY.atTime(9, 30);
+        LocalDateTime end = DAY.plusDays(3).atTime(11, 15);
+
+        FleetRollupService.split(1L, start, end, 2_345_678L, 1, null, null, totals);
+        FleetRollupService.split(1L, start, end, 2_345_678L, -1, null, null, totals);
+
+        totals.values().forEach(sums -> assertArrayEquals(new long[3], sums));
+    }
+
+    @Test
+    void rebuildClipKeepsOnlyDaysInRange() {
+        Map<FleetRollupService.DayKey, long[]> totals = new HashMap<>();
+
+        FleetRollupService.split(1L, DAY.atStartOfDay(), DAY.plusDays(3).atStartOfDay(), 300L, 1,
+                DAY.plusDays(1), DAY.plusDays(1), totals);
+
+        assertEquals(1, totals.size());
+        assertArrayEquals(new long[]{1440, 100, 0}, totals.get(new FleetRollupService.DayKey(1L, DAY.plusDays(1))));
+    }
+}
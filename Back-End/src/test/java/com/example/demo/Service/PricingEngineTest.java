@@ -0,0 +1,159 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.RatePlan;
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.DataVersionJdbcRepository;
+import com.example.demo.Repository.RatePlanRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PricingEngineTest {
+
+    private static final long DAILY = 500_000L;
+
+    private final LocalDate nextMonday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    @Test
+    void withoutPlansTotalIsDailyPriceTimesDays() {
+        PricingEngine engine = engine(List.of());
+
+        assertEquals(3 * DAILY, engine.quoteMinor(Vehicle.VehicleType.SEDAN, DAILY, nextMonday, 3));
+    }
+
+    @Test
+    void weekendAndLongRentalAdjustmentsCombine() {
+        PricingEngine engine = engine(List.of(
+                plan(RatePlan.Kind.WEEKEND, null, 5_000),
+                plan(RatePlan.Kind.LONG_RENTAL, null, -1_000, 7)));
+
+        // 5 ngày thường + 2 ngày cuối tuần x1.5 = 8 ngày giá gốc, thuê đủ 7 ngày giảm 10%
+        assertEquals(8 * DAILY * 9 / 10, engine.quoteMinor(Vehicle.VehicleType.SUV, DAILY, nextMonday, 7));
+        // Thứ Hai..thứ Bảy: 6 ngày chưa đủ mức thuê dài ngày
+        assertEquals(13 * DAILY / 2, engine.quoteMinor(Vehicle.VehicleType.SUV, DAILY, nextMonday, 6));
+    }
+
+    @Test
+    void seasonalPlanOnlyAppliesToItsVehicleType() {
+        RatePlan season = plan(RatePlan.Kind.SEASONAL, Vehicle.VehicleType.SUV, 2_000);
+        season.setStartDate(nextMonday.plusDays(1));
+        season.setEndDate(nextMonday.plusDays(2));
+        PricingEngine engine = engine(List.of(season));
+
+        assertEquals(3 * DAILY + 2 * DAILY / 5, engine.quoteMinor(Vehicle.VehicleType.SUV, DAILY, nextMonday, 3));
+        assertEquals(3 * DAILY, engine.quoteMinor(Vehicle.VehicleType.SEDAN, DAILY, nextMonday, 3));
+    }
+
+    @Test
+    void precomputedTableMatchesPerDayFallback() {
+        RatePlan season = plan(RatePlan.Kind.SEASONAL, null, 3_000);
+        season.setStartDate(nextMonday.plusDays(3));
+        season.setEndDate(nextMonday.plusDays(20));
+        List<RatePlan> plans = List.of(season, plan(RatePlan.Kind.WEEKEND, null, 1_500));
+        long fromDay = LocalDate.now().toEpochDay();
+        PricingEngine.TypeTable table = PricingEngine.TypeTable.of(plans, fromDay, 90);
+
+        for (int offset = 0; offset < 60; offset += 7) {
+            long start = fromDay + offset;
+            for (int days = 1; days <= 30; days++) {
+                long expected = 0;
+                for (long day = start; day < start + days; day++) {
+                    expected += table.dayBp(day);
+                }
+                assertEquals(expected, table.sumBp(start, days, fromDay));
+            }
+        }
+    }
+
+    @Test
+    void recompilesWhenRatePlanVersionChangesOnAnotherNode() {
+        RatePlanRepository ratePlans = mock(RatePlanRepository.class);
+        DataVersionJdbcRepository versions = mock(DataVersionJdbcRepository.class);
+        when(ratePlans.findByActiveTrue()).thenReturn(List.of());
+        when(versions.current(DataVersionJdbcRepository.RATE_PLANS)).thenReturn(1L);
+        PricingEngine engine = engine(ratePlans, versions);
+
+        // Version không đổi: giữ bảng đã biên dịch
+        long compiledVersion = engine.version();
+        engine.recompileIfChanged();
+        assertEquals(compiledVersion, engine.version());
+
+        // Node khác thêm plan cuối tuần và tăng version
+        when(ratePlans.findByActiveTrue()).thenReturn(List.of(plan(RatePlan.Kind.WEEKEND, null, 5_000)));
+        when(versions.current(DataVersionJdbcRepository.RATE_PLANS)).thenReturn(2L);
+        engine.recompileIfChanged();
+
+        assertNotEquals(compiledVersion, engine.version());
+        assertEquals(8 * DAILY, engine.quoteMinor(Vehicle.VehicleType.SEDAN, DAILY, nextMonday, 7));
+    }
+
+    @Test
+    void chargeableDaysRoundsUpToWholeDays() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+        assertEquals(1, PricingEngine.chargeableDays(start, start.plusHours(3)));
+        assertEquals(1, PricingEngine.chargeableDays(start, start.plusDays(1)));
+        assertEquals(2, PricingEngine.chargeableDays(start, start.plusDays(1).plusMinutes(1)));
+    }
+
+    @Test
+    void minorUnitsFollowCurrencyFractionDigits() {
+        assertEquals(500_000L, PricingEngine.toMinor(new BigDecimal("500000.00"), "VND"));
+        assertEquals(new BigDecimal("12.34"), PricingEngine.fromMinor(1_234L, "USD"));
+    }
+
+    @Test
+    void unknownCurrencyIsRejectedWithValidationMessage() {
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> PricingEngine.toMinor(new BigDecimal("10"), "vnd"));
+
+        assertFalse(error instanceof IllegalArgumentException);
+        assertEquals("Mã tiền tệ không hợp lệ: vnd", error.getMessage());
+        assertThrows(RuntimeException.class, () -> PricingEngine.requireCurrency("ABC"));
+        assertEquals("VND", PricingEngine.requireCurrency("VND"));
+    }
+
+    private static PricingEngine engine(List<RatePlan> plans) {
+        RatePlanRepository repository = mock(RatePlanRepository.class);
+        when(repository.findByActiveTrue()).thenReturn(plans);
+        return engine(repository, mock(DataVersionJdbcRepository.class));
+    }
+
+    private static PricingEngine engine(RatePlanRepository repository, DataVersionJdbcRepository versions) {
+        PricingEngine engine = new PricingEngine();
+        ReflectionTestUtils.setField(engine, "ratePlanRepository", repository);
+        ReflectionTestUtils.setField(engine, "dataVersionRepository", versions);
+        ReflectionTestUtils.setField(engine, "horizonPastDays", 30);
+        ReflectionTestUtils.setField(engine, "horizonDays", 120);
+        engine.compile();
+        return engine;
+    }
+
+    private static RatePlan plan(RatePlan.Kind kind, Vehicle.VehicleType type, int bp) {
+        RatePlan plan = new RatePlan();
+        plan.setName(kind.name());
+        plan.setKind(kind);
+        plan.setVehicleType(type);
+        plan.setAdjustmentBp(bp);
+        return plan;
+    }
+
+    private static RatePlan plan(RatePlan.Kind kind, Vehicle.VehicleType type, int bp, int minDays) {
+        RatePlan plan = plan(kind, type, bp);
+        plan.setMinDays(minDays);
+        return plan;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.Booking;
+import com.example.demo.Repository.BookingOutboxJdbcRepository;
+import com.example.demo.Repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VehicleAvailabilityIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 9, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+    private final VehicleAvailabilityIndex index = new VehicleAvailabilityIndex();
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final BookingOutboxJdbcRepository outboxRepository = mock(BookingOutboxJdbcRepository.class);
+
+    @BeforeEach
+    void wire() {
+        ReflectionTestUtils.setField(index, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(index, "outboxRepository", outboxRepository);
+        ReflectionTestUtils.setField(index, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(index, "settleMillis", 2000L);
+        ReflectionTestUtils.setField(index, "pollBatchSize", 500);
+    }
+
+    @Test
+    void changeCommittedWhileLoadingSurvivesTheSwap() {
+        // Booking commit (afterCommit) trong lúc load đang đọc dữ liệu cũ chưa có nó
+        when(bookingRepository.findActiveIntervals()).thenAnswer(inv -> {
+            index.onBookingChanged(10L, 1L, START, END, Booking.BookingStatus.PENDING);
+            return List.of();
+        });
+
+        index.load();
+
+        assertFalse(index.isAvailable(1L, START, END));
+    }
+
+    @Test
+    void pollAppliesBookingsMadeOnAnotherNode() {
+        when(outboxRepository.maxId()).thenReturn(7L);
+        when(bookingRepository.findActiveIntervals()).thenReturn(List.of());
+        index.load();
+        when(outboxRepository.findAfter(eq(7L), anyLong(), anyInt())).thenReturn(List.of(
+                new BookingOutboxJdbcRepository.OutboxEvent(8, 10L, 1L, null, Booking.BookingStatus.PENDING,
+                        START, END, START.minusDays(1))));
+
+        index.pollOutbox();
+
+        assertFalse(index.isAvailable(1L, START, END));
+        assertTrue(index.isAvailable(1L, END, END.plusDays(1)));
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.demo.Service;
+
+import com.example.demo.Entity.Vehicle;
+import com.example.demo.Repository.DataVersionJdbcRepository;
+import com.example.demo.Repository.VehicleCatalogChangeJdbcRepository;
+import com.example.demo.Repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VehicleCatalogTest {
+
+    private final VehicleCatalog catalog = new VehicleCatalog();
+
+    @BeforeEach
+    void loadSnapshot() {
+        ReflectionTestUtils.setField(catalog, "parallelThreshold", 50_000);
+        ReflectionTestUtils.setField(catalog, "snapshot", VehicleCatalog.Snapshot.of(List.of(
+                entry(4L, "Honda City", Vehicle.VehicleType.SEDAN, "51A-12345", "700000.00"),
+                entry(1L, "Vision", Vehicle.VehicleType.MOTORCYCLE, "59X1-0001", "150000.00"),
+                entry(3L, "Toyota Vios", Vehicle.VehicleType.SEDAN, "51A-67890", "650000.00"),
+                entry(2L, "Air Blade", Vehicle.VehicleType.MOTORCYCLE, "59X1-0002", "150000.00")), 1));
+    }
+
+    @Test
+    void priceRangeSortedByPriceThenId() {
+        Page<VehicleCatalog.Entry> page = catalog.search(null, new BigDecimal("150000"), new BigDecimal("650000"),
+                null, null, null, PageRequest.of(0, 10, Sort.by("dailyPrice").and(Sort.by("id"))));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(page));
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    void descendingPageIsReverseOfAscending() {
+        Page<VehicleCatalog.Entry> page = catalog.search(null, null, null, null, null, null,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "dailyPrice")));
+
+        assertEquals(List.of(4L, 3L), ids(page));
+        assertEquals(4, page.getTotalElements());
+    }
+
+    @Test
+    void typeAndTextFiltersMatchPlateCaseInsensitively() {
+        Page<VehicleCatalog.Entry> page = catalog.search(Vehicle.VehicleType.SEDAN, null, null, null, "51a-6", null,
+                PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(List.of(3L), ids(page));
+    }
+
+    @Test
+    void statusPatchOnlyChangesStatusColumn() {
+        VehicleCatalog.Snapshot current = (VehicleCatalog.Snapshot) ReflectionTestUtils.getField(catalog, "snapshot");
+        ReflectionTestUtils.setField(catalog, "snapshot", current.withStatuses(Map.of(3L, Vehicle.VehicleStatus.RENTED), 2));
+
+        Page<VehicleCatalog.Entry> available = catalog.search(Vehicle.VehicleType.SEDAN, null, null,
+                Vehicle.VehicleStatus.AVAILABLE, null, null, PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(List.of(4L), ids(available));
+        assertEquals(Vehicle.VehicleStatus.RENTED, catalog.searchAfter(null, null, null, null, null, null,
+                "id", false, null, 10).get(2).status());
+    }
+
+    @Test
+    void statusPatchTakesTheSharedVersionEvenWithoutChanges() {
+        String before = catalog.versionTag();
+        VehicleCatalog.Snapshot current = (VehicleCatalog.Snapshot) ReflectionTestUtils.getField(catalog, "snapshot");
+
+        // Trạng thái không đổi: dữ liệu dùng chung, version vẫn theo version dùng chung của thay đổi
+        VehicleCatalog.Snapshot unchanged = current.withStatuses(Map.of(3L, Vehicle.VehicleStatus.AVAILABLE), 2);
+        assertSame(current.entries, unchanged.entries);
+        ReflectionTestUtils.setField(catalog, "snapshot", unchanged);
+        assertNotEquals(before, catalog.versionTag());
+        assertEquals("2", catalog.versionTag());
+    }
+
+    @Test
+    void statusChangeOnlyRecordsTheVehiclesUnderTheNewVersion() {
+        VehicleRepository vehicles = mockRepositories(2L, 1L, List.of());
+        DataVersionJdbcRepository versions =
+                (DataVersionJdbcRepository) ReflectionTestUtils.getField(catalog, "dataVersionRepository");
+        VehicleCatalogChangeJdbcRepository changes =
+                (VehicleCatalogChangeJdbcRepository) ReflectionTestUtils.getField(catalog, "changeRepository");
+
+        catalog.onStatusChanged(List.of(3L));
+
+        verify(versions).bumpAndGet(DataVersionJdbcRepository.VEHICLE_CATALOG);
+        verify(changes).record(2L, List.of(3L), true);
+        // Làm mới chạy trên luồng nền, không đọc xe trong transaction ghi
+        verify(vehicles, never()).findStatusesByIdIn(any());
+    }
+
+    @Test
+    void refreshPatchesStatusesFromTheChangeLog() {
+        VehicleRepository vehicles = mockRepositories(2L, 2L,
+                List.of(new VehicleCatalogChangeJdbcRepository.Change(2, 3L, true)));
+        VehicleRepository.VehicleStatusView view = mock(VehicleRepository.VehicleStatusView.class);
+        when(view.getId()).thenReturn(3L);
+        when(view.getStatus()).thenReturn(Vehicle.VehicleStatus.RENTED);
+        when(vehicles.findStatusesByIdIn(any())).thenReturn(List.of(view));
+
+        catalog.refresh();
+
+        assertEquals("2", catalog.versionTag());
+        assertEquals(Vehicle.VehicleStatus.RENTED, catalog.find(3L).status());
+        verify(vehicles, never()).findAllWithPhotos();
+    }
+
+    @Test
+    void refreshReloadsOnlyVehiclesWrittenOnAnotherNode() {
+        // Version 2: node khác thêm xe 5; version 3: xe 4 bị xóa
+        VehicleRepository vehicles = mockRepositories(3L, 3L, List.of(
+                new VehicleCatalogChangeJdbcRepository.Change(2, 5L, false),
+                new VehicleCatalogChangeJdbcRepository.Change(3, 4L, false)));
+        Vehicle added = new Vehicle();
+        ReflectionTestUtils.setField(added, "id", 5L);
+        added.setTitle("Kia Morning");
+        added.setVehicleType(Vehicle.VehicleType.HATCHBACK);
+        added.setLicensePlate("51A-11111");
+        added.setDailyPrice(new BigDecimal("400000.00"));
+        when(vehicles.findAllWithPhotosByIdIn(any())).thenReturn(List.of(added));
+
+        catalog.refresh();
+
+        assertEquals("3", catalog.versionTag());
+        assertEquals(List.of(1L, 2L, 5L, 3L), catalog.searchAfter(null, null, null, null, null, null,
+                "dailyPrice", false, null, 10).stream().map(VehicleCatalog.Entry::id).toList());
+        verify(vehicles, never()).findAllWithPhotos();
+    }
+
+    @Test
+    void refreshRebuildsWhenTheChangeLogNoLongerCoversTheSnapshot() {
+        // Snapshot ở version 1, nhật ký chỉ còn version 3: version 2 đã bị dọn
+        VehicleRepository vehicles = mockRepositories(3L, 3L,
+                List.of(new VehicleCatalogChangeJdbcRepository.Change(3, 3L, true)));
+        when(vehicles.findAllWithPhotos()).thenReturn(List.of());
+
+        catalog.refresh();
+
+        assertEquals("3", catalog.versionTag());
+        verify(vehicles).findAllWithPhotos();
+        verify(vehicles, never()).findStatusesByIdIn(any());
+    }
+
+    @Test
+    void keysetPagesWalkPriceOrderInBothDirections() {
+        assertEquals(List.of(1L, 2L, 3L, 4L), walk(false));
+        assertEquals(List.of(4L, 3L, 2L, 1L), walk(true));
+    }
+
+    private List<Long> walk(boolean descending) {
+        List<Long> seen = new ArrayList<>();
+        VehicleKeyset after = null;
+        while (true) {
+            List<VehicleCatalog.Entry> page = catalog.searchAfter(null, null, null, null, null, null,
+                    "dailyPrice", descending, after, 1);
+            if (page.isEmpty()) {
+                return seen;
+            }
+            seen.add(page.get(0).id());
+            after = VehicleKeyset.decode(VehicleKeyset.after(page.get(0), "dailyPrice", descending).encode(),
+                    "dailyPrice", descending);
+        }
+    }
+
+    /**
+     * Repository giả; snapshot ở version 1, nhật ký trả về changes cho mọi khoảng version
+     */
+    private VehicleRepository mockRepositories(long bumpedVersion, long sharedVersion,
+                                               List<VehicleCatalogChangeJdbcRepository.Change> changes) {
+        VehicleRepository vehicles = mock(VehicleRepository.class);
+        DataVersionJdbcRepository versions = mock(DataVersionJdbcRepository.class);
+        VehicleCatalogChangeJdbcRepository changeLog = mock(VehicleCatalogChangeJdbcRepository.class);
+        when(versions.bumpAndGet(DataVersionJdbcRepository.VEHICLE_CATALOG)).thenReturn(bumpedVersion);
+        when(versions.current(DataVersionJdbcRepository.VEHICLE_CATALOG)).thenReturn(sharedVersion);
+        when(changeLog.findBetween(anyLong(), anyLong())).thenReturn(changes);
+        ReflectionTestUtils.setField(catalog, "vehicleRepository", vehicles);
+        ReflectionTestUtils.setField(catalog, "dataVersionRepository", versions);
+        ReflectionTestUtils.setField(catalog, "changeRepository", changeLog);
+        ReflectionTestUtils.setField(catalog, "transactionManager", mock(PlatformTransactionManager.class));
+        return vehicles;
+    }
+
+    private static VehicleCatalog.Entry entry(Long id, String title, Vehicle.VehicleType type, String plate, String price) {
+        return new VehicleCatalog.Entry(id, title, type, plate, new BigDecimal(price), "VND",
+                Vehicle.VehicleStatus.AVAILABLE, null, LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(id), List.of());
+    }
+
+    private static List<Long> ids(Page<VehicleCatalog.Entry> page) {
+        return page.getContent().stream().map(VehicleCatalog.Entry::id).toList();
+    }
+}
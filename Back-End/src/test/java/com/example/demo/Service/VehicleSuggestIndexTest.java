@@ -0,0 +1,63 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.VehicleSuggestionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VehicleSuggestIndexTest {
+
+    private final VehicleSuggestIndex index = new VehicleSuggestIndex();
+    private final VehicleSuggestIndex.Tables tables = new VehicleSuggestIndex.Tables();
+
+    @BeforeEach
+    void load() {
+        tables.put(1L, "Toyota Vios", "51A-123.45");
+        tables.put(2L, "Toyota Vios", "51A-678.90");
+        tables.put(3L, "Toyota Innova 7 chỗ", "51B-000.01");
+        tables.put(4L, "Kia Morning", "59C-111.11");
+        ReflectionTestUtils.setField(index, "tables", tables);
+    }
+
+    @Test
+    void titlePrefixIgnoresDiacriticsAndGroupsSameTitle() {
+        List<VehicleSuggestionResponse> result = index.suggest("TOYOTA v", 10);
+
+        assertEquals(1, result.size());
+        assertEquals("Toyota Vios", result.get(0).getText());
+        assertEquals(2, result.get(0).getVehicleCount());
+        assertNull(result.get(0).getVehicleId());
+    }
+
+    @Test
+    void plateMatchesWithoutSeparators() {
+        List<VehicleSuggestionResponse> result = index.suggest("51a6", 10);
+
+        assertEquals(List.of("51A-678.90"), texts(result));
+        assertEquals(2L, result.get(0).getVehicleId());
+    }
+
+    @Test
+    void wordInsideTitleComesAfterTitleStarts() {
+        assertEquals(List.of("Toyota Innova 7 chỗ"), texts(index.suggest("7 cho", 10)));
+        assertEquals(List.of("Kia Morning"), texts(index.suggest("morn", 10)));
+    }
+
+    @Test
+    void renamedVehicleNoLongerSuggestedUnderOldTitle() {
+        tables.put(4L, "Kia Carnival", "59C-111.11");
+
+        assertEquals(List.of("Kia Carnival"), texts(index.suggest("kia", 10)));
+        tables.remove(3L);
+        assertEquals(List.of("Toyota Vios"), texts(index.suggest("toyota", 10)));
+    }
+
+    private static List<String> texts(List<VehicleSuggestionResponse> result) {
+        return result.stream().map(VehicleSuggestionResponse::getText).toList();
+    }
+}
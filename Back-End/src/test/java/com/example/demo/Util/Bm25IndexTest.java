@@ -0,0 +1,54 @@
+package com.example.demo.Util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Bm25IndexTest {
+
+    @Test
+    void foldsVietnameseDiacritics() {
+        assertEquals(List.of("toyota", "innova", "7", "cho", "duong", "dai"),
+                VietnameseText.tokens("Toyota Innova – 7 chỗ, đường DÀI"));
+    }
+
+    @Test
+    void documentsMatchingMoreTermsRankFirstThenInsertionOrder() {
+        Bm25Index index = new Bm25Index();
+        index.put(1L, terms("Toyota Vios 5 chỗ"));
+        index.put(2L, terms("Toyota Innova 7 chỗ"));
+        index.put(3L, terms("Kia Carnival 7 chỗ"));
+        index.put(4L, terms("Honda Vision"));
+
+        assertArrayEquals(new long[]{2L, 1L, 3L}, index.search(VietnameseText.tokens("toyota 7 cho")));
+    }
+
+    @Test
+    void updatedAndRemovedDocumentsLeaveNoStalePostings() {
+        Bm25Index index = new Bm25Index();
+        for (long id = 1; id <= 3000; id++) {
+            index.put(id, terms(id % 2 == 0 ? "sedan" : "suv"));
+        }
+        for (long id = 1; id <= 3000; id += 2) {
+            index.put(id, terms("sedan"));
+        }
+        for (long id = 1; id <= 2990; id++) {
+            index.remove(id);
+        }
+
+        assertEquals(10, index.size());
+        assertEquals(0, index.search(List.of("suv")).length);
+        assertEquals(10, index.search(List.of("sedan")).length);
+    }
+
+    private static Map<String, Integer> terms(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        VietnameseText.tokens(text).forEach(t -> frequencies.merge(t, 1, Integer::sum));
+        return frequencies;
+    }
+}
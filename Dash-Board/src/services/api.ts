@@ -70,11 +70,26 @@ export const authApi = {
   },
 };
 
+// Danh sách xe trả theo trang keyset (tối đa 100 xe mỗi trang): đi theo header X-Next-Cursor tới trang cuối
+const VEHICLE_PAGE_SIZE = 100;
+
+const fetchAllPages = async <T>(url: string, params: Record<string, unknown>, sizeParam: string): Promise<T[]> => {
+  const items: T[] = [];
+  let cursor: string | undefined;
+  do {
+    const response = await api.get<T[]>(url, {
+      params: { ...params, [sizeParam]: VEHICLE_PAGE_SIZE, cursor },
+    });
+    items.push(...response.data);
+    cursor = (response.headers['x-next-cursor'] as string | undefined) || undefined;
+  } while (cursor);
+  return items;
+};
+
 // Vehicle APIs
 export const vehicleApi = {
   list: async (): Promise<Vehicle[]> => {
-    const response = await api.get<Vehicle[]>('/vehicles');
-    return response.data;
+    return fetchAllPages<Vehicle>('/vehicles', {}, 'limit');
   },
   getById: async (id: number): Promise<Vehicle> => {
     const response = await api.get<Vehicle>(`/vehicles/${id}`);
@@ -85,8 +100,7 @@ export const vehicleApi = {
     minPrice?: number;
     maxPrice?: number;
   }): Promise<Vehicle[]> => {
-    const response = await api.get<Vehicle[]>('/vehicles/search', { params });
-    return response.data;
+    return fetchAllPages<Vehicle>('/vehicles/search', { ...params }, 'size');
   },
   create: async (data: VehicleRequest): Promise<Vehicle> => {
     const response = await api.post<Vehicle>('/vehicles', data);
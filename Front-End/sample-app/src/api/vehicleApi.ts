@@ -57,10 +57,37 @@ export interface Vehicle {
   primaryPhotoUrl?: string; // URL của ảnh chính
 }
 
+// Server trả danh sách xe theo trang keyset (tối đa 100 xe mỗi trang), cursor trang sau nằm ở header X-Next-Cursor
+const VEHICLE_PAGE_SIZE = 100;
+
+// Dùng cho các màn hình gọi fetch trực tiếp: tải hết các trang của url
+export const fetchAllVehiclePages = async <T>(url: string, init?: RequestInit): Promise<T[]> => {
+  const items: T[] = [];
+  let cursor: string | null = null;
+  do {
+    const pageUrl: string = `${url}?limit=${VEHICLE_PAGE_SIZE}` + (cursor ? `&cursor=${encodeURIComponent(cursor)}` : '');
+    const response = await fetch(pageUrl, init);
+    if (!response.ok) {
+      throw new Error(`HTTP ${response.status}`);
+    }
+    items.push(...(await response.json()));
+    cursor = response.headers.get('X-Next-Cursor');
+  } while (cursor);
+  return items;
+};
+
 export const fetchVehicles = async (): Promise<Vehicle[]> => {
   try {
-    const response = await api.get<Vehicle[]>('/api/vehicles');
-    return response.data || [];
+    const vehicles: Vehicle[] = [];
+    let cursor: string | undefined;
+    do {
+      const response = await api.get<Vehicle[]>('/api/vehicles', {
+        params: { limit: VEHICLE_PAGE_SIZE, cursor },
+      });
+      vehicles.push(...(response.data || []));
+      cursor = (response.headers['x-next-cursor'] as string | undefined) || undefined;
+    } while (cursor);
+    return vehicles;
   } catch (error: any) {
     console.log('LỖI KẾT NỐI:', error.message); // LOG 4: Lỗi cuối cùng
     throw new Error('Không thể kết nối đến server');
@@ -4,6 +4,7 @@ import {
 } from 'react-native';
 import { Ionicons } from '@expo/vector-icons';
 import { useNavigation } from '@react-navigation/native';
+import { fetchAllVehiclePages } from '../api/vehicleApi';
 
 interface Vehicle {
   id: number;
@@ -24,15 +25,10 @@ const VehicleListScreen: React.FC = () => {
 
   const fetchVehicles = async () => {
     try {
-      const response = await fetch('http://localhost:8080/api/vehicles');
-      if (response.ok) {
-        const data = await response.json();
-        setVehicles(data);
-      } else {
-        Alert.alert('Lỗi', 'Không thể tải danh sách xe');
-      }
+      const data = await fetchAllVehiclePages<Vehicle>('http://localhost:8080/api/vehicles');
+      setVehicles(data);
     } catch (error) {
-      Alert.alert('Lỗi', 'Không thể kết nối đến server');
+      Alert.alert('Lỗi', 'Không thể tải danh sách xe');
     } finally {
       setLoading(false);
       setRefreshing(false);